@@ -0,0 +1,53 @@
+package pages;
+// Clase ListadoResultadosBenchmark: mide el listado y filtrado de resultados que hace
+// seleccionarTercerItem, contra un WebDriver simulado que devuelve una página completa
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import utilidades.Driver;
+import utilidades.NavegadorSimulado;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class ListadoResultadosBenchmark {
+
+    // Resultados que devuelve el navegador simulado por página
+    @Param({"16", "60"})
+    public int resultados;
+
+    @Setup(Level.Trial)
+    public void asignarSesion() {
+        NavegadorSimulado.asignarAlHiloActual(
+                NavegadorSimulado.crear(NavegadorSimulado.resultados(resultados), new byte[0]));
+    }
+
+    /**
+     * Mismo recorrido que seleccionarTercerItem: leer la página, limitar a 10 y elegir el tercer producto real
+     */
+    @Benchmark
+    public ResultadoBusqueda tercerProductoReal() {
+        PaginaResultados pagina = new PaginaAmazon().leerResultados();
+        List<ResultadoBusqueda> items = pagina.getResultados().stream().limit(10).toList();
+        List<ResultadoBusqueda> reales = pagina.filtrar(ResultadoBusqueda::esProductoReal).stream().limit(10).toList();
+        return (reales.size() < 3 ? items : reales).get(2);
+    }
+
+    /**
+     * Solo la conversión de las filas del script en registros ResultadoBusqueda
+     */
+    @Benchmark
+    public List<ResultadoBusqueda> extraer() {
+        return ExtractorResultados.extraer(Driver.getDriver(), PaginaResultados.SELECTOR_RESULTADOS, 60);
+    }
+}
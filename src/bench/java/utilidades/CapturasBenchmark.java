@@ -0,0 +1,78 @@
+package utilidades;
+// Clase CapturasBenchmark: mide el trabajo que hace el hilo del paso al tomar una captura
+// (obtenerla del navegador y guardarla en AlmacenCapturas) frente a codificarla en Base64
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.WebDriver;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class CapturasBenchmark {
+
+    private WebDriver driver;
+
+    @Setup(Level.Trial)
+    public void crearCaptura() throws IOException {
+        driver = NavegadorSimulado.crear(List.of(), png(PerfilNavegador.ANCHO_VENTANA, PerfilNavegador.ALTO_VENTANA));
+    }
+
+    @TearDown(Level.Trial)
+    public void esperarEscrituras() {
+        AlmacenCapturas.esperarEscrituras();
+    }
+
+    /**
+     * Camino actual de takeScreenshot: la imagen repetida solo se resume con SHA-256,
+     * la escritura ocurre una vez y en segundo plano
+     */
+    @Benchmark
+    public String guardarEnAlmacen() {
+        return AlmacenCapturas.guardar(((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES));
+    }
+
+    /**
+     * Camino anterior: la captura se incrustaba en el reporte como texto Base64
+     */
+    @Benchmark
+    public String codificarBase64() {
+        return ((TakesScreenshot) driver).getScreenshotAs(OutputType.BASE64);
+    }
+
+    /**
+     * PNG del tamaño de la ventana con ruido suficiente para no comprimirse a casi nada
+     */
+    private static byte[] png(int ancho, int alto) throws IOException {
+        BufferedImage imagen = new BufferedImage(ancho, alto, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = imagen.createGraphics();
+        Random aleatorio = new Random(42);
+        for (int i = 0; i < 400; i++) {
+            g.setColor(new Color(aleatorio.nextInt(0xFFFFFF)));
+            g.fillRect(aleatorio.nextInt(ancho), aleatorio.nextInt(alto), 20 + aleatorio.nextInt(200), 10 + aleatorio.nextInt(60));
+        }
+        g.dispose();
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        ImageIO.write(imagen, "png", salida);
+        return salida.toByteArray();
+    }
+}
@@ -0,0 +1,54 @@
+package utilidades;
+// Clase DriverBenchmark: mide el acceso por hilo a Driver.getDriver() y Driver.getWait(),
+// solo y con varios hilos a la vez como en la ejecución en paralelo
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.ui.WebDriverWait;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class DriverBenchmark {
+
+    @Setup(Level.Trial)
+    public void asignarSesion() {
+        // Cada hilo de JMH recibe su propia sesión, igual que cada hilo de Cucumber
+        NavegadorSimulado.asignarAlHiloActual(NavegadorSimulado.crear(List.of(), new byte[0]));
+    }
+
+    @Benchmark
+    @Threads(1)
+    public WebDriver getDriverUnHilo() {
+        return Driver.getDriver();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public WebDriver getDriverCuatroHilos() {
+        return Driver.getDriver();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public WebDriverWait getWaitUnHilo() {
+        return Driver.getWait();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public WebDriverWait getWaitCuatroHilos() {
+        return Driver.getWait();
+    }
+}
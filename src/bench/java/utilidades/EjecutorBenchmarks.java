@@ -0,0 +1,122 @@
+package utilidades;
+// Clase EjecutorBenchmarks: ejecuta los benchmarks JMH y compara cada resultado con la línea base
+// guardada, fallando si alguno empeoró más de la tolerancia (mvn -Pbenchmarks test-compile exec:exec)
+
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+public class EjecutorBenchmarks {
+
+    // Archivo con los puntajes de referencia (-Dbenchmarks.base)
+    private static final Path BASE = Paths.get(System.getProperty("benchmarks.base", "benchmarks/linea-base.properties"));
+    // Empeoramiento máximo permitido respecto a la base, 0.15 = 15 % (-Dbenchmarks.tolerancia)
+    private static final double TOLERANCIA = Double.parseDouble(System.getProperty("benchmarks.tolerancia", "0.15"));
+    // Guarda los resultados de esta ejecución como nueva línea base (-Dbenchmarks.guardarBase=true)
+    private static final boolean GUARDAR_BASE = Boolean.getBoolean("benchmarks.guardarBase");
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException, IOException {
+        // Los argumentos habituales de JMH (filtros, -f, -wi, -i, -rf...) siguen funcionando
+        Collection<RunResult> resultados = new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .build()).run();
+
+        Map<String, Double> actuales = new TreeMap<>();
+        for (RunResult resultado : resultados) {
+            actuales.put(nombre(resultado), resultado.getPrimaryResult().getScore());
+        }
+
+        if (GUARDAR_BASE) {
+            guardarBase(actuales);
+            System.out.println("Línea base guardada en " + BASE.toAbsolutePath());
+            return;
+        }
+        if (!Files.exists(BASE)) {
+            System.out.println("No hay línea base en " + BASE.toAbsolutePath()
+                    + "; ejecute con -Dbenchmarks.guardarBase=true para crearla");
+            return;
+        }
+        if (compararConBase(actuales) > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Nombre del benchmark con sus parámetros, por ejemplo pages.ListadoResultadosBenchmark.extraer[resultados=60]
+     */
+    private static String nombre(RunResult resultado) {
+        StringBuilder nombre = new StringBuilder(resultado.getParams().getBenchmark());
+        Collection<String> parametros = resultado.getParams().getParamsKeys();
+        if (!parametros.isEmpty()) {
+            nombre.append('[');
+            for (String clave : parametros) {
+                if (nombre.charAt(nombre.length() - 1) != '[') {
+                    nombre.append(',');
+                }
+                nombre.append(clave).append('=').append(resultado.getParams().getParam(clave));
+            }
+            nombre.append(']');
+        }
+        return nombre.toString();
+    }
+
+    /**
+     * Todos los benchmarks miden tiempo medio por operación: un puntaje mayor es peor
+     *
+     * @return cantidad de benchmarks que empeoraron más de la tolerancia
+     */
+    private static int compararConBase(Map<String, Double> actuales) throws IOException {
+        Properties base = new Properties();
+        try (InputStream entrada = Files.newInputStream(BASE)) {
+            base.load(entrada);
+        }
+        int regresiones = 0;
+        System.out.println("=== COMPARACIÓN CON LA LÍNEA BASE (tolerancia " + Math.round(TOLERANCIA * 100) + " %) ===");
+        for (Map.Entry<String, Double> actual : actuales.entrySet()) {
+            String referencia = base.getProperty(actual.getKey());
+            if (referencia == null) {
+                System.out.println("NUEVO     " + actual.getKey() + ": " + formato(actual.getValue()));
+                continue;
+            }
+            double anterior = Double.parseDouble(referencia);
+            double cambio = (actual.getValue() - anterior) / anterior;
+            boolean regresion = cambio > TOLERANCIA;
+            if (regresion) {
+                regresiones++;
+            }
+            System.out.println((regresion ? "REGRESIÓN " : "OK        ") + actual.getKey() + ": "
+                    + formato(anterior) + " -> " + formato(actual.getValue())
+                    + String.format(" (%+.1f %%)", cambio * 100));
+        }
+        return regresiones;
+    }
+
+    private static void guardarBase(Map<String, Double> actuales) throws IOException {
+        Properties base = new Properties();
+        actuales.forEach((clave, valor) -> base.setProperty(clave, String.valueOf(valor)));
+        if (BASE.getParent() != null) {
+            Files.createDirectories(BASE.getParent());
+        }
+        try (OutputStream salida = Files.newOutputStream(BASE)) {
+            base.store(salida, "Línea base de los benchmarks de AmazonProyecto (tiempo medio por operación)");
+        }
+    }
+
+    private static String formato(double valor) {
+        return String.format("%.3f", valor);
+    }
+}
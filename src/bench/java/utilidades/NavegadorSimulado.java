@@ -0,0 +1,79 @@
+package utilidades;
+// Clase NavegadorSimulado: WebDriver falso que responde en memoria, para medir el código del
+// framework sin el costo del navegador
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.ui.WebDriverWait;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class NavegadorSimulado {
+
+    /**
+     * Crea un WebDriver cuyo executeScript devuelve siempre las filas indicadas y cuya captura
+     * de pantalla devuelve la imagen indicada
+     */
+    public static WebDriver crear(List<Map<String, Object>> filas, byte[] captura) {
+        return (WebDriver) Proxy.newProxyInstance(NavegadorSimulado.class.getClassLoader(),
+                new Class<?>[]{WebDriver.class, JavascriptExecutor.class, TakesScreenshot.class},
+                (proxy, metodo, argumentos) -> {
+                    switch (metodo.getName()) {
+                        case "executeScript":
+                            return filas;
+                        case "getScreenshotAs":
+                            return ((OutputType<?>) argumentos[0]).convertFromPngBytes(captura);
+                        case "getWindowHandle":
+                            return "principal";
+                        case "getWindowHandles":
+                            return Set.of("principal");
+                        case "getCurrentUrl":
+                            return "about:blank";
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == argumentos[0];
+                        case "toString":
+                            return "NavegadorSimulado";
+                        default:
+                            return null;
+                    }
+                });
+    }
+
+    /**
+     * Filas con la misma forma que devuelve el script de ExtractorResultados
+     */
+    public static List<Map<String, Object>> resultados(int cantidad) {
+        List<Map<String, Object>> filas = new ArrayList<>();
+        for (int i = 0; i < cantidad; i++) {
+            Map<String, Object> fila = new HashMap<>();
+            fila.put("indice", (long) i);
+            fila.put("titulo", "Producto de prueba " + i);
+            fila.put("enlace", "https://www.amazon.com/dp/B0BENCH" + i);
+            fila.put("visible", true);
+            fila.put("patrocinado", i % 5 == 0);
+            fila.put("conTitulo", true);
+            fila.put("asin", "B0BENCH" + i);
+            fila.put("precio", "$1,2" + (i % 10) + "4.99");
+            fila.put("calificacion", "4." + (i % 10) + " out of 5 stars");
+            filas.add(fila);
+        }
+        return filas;
+    }
+
+    /**
+     * Asigna al hilo actual una sesión del Driver respaldada por un navegador simulado
+     */
+    public static void asignarAlHiloActual(WebDriver driver) {
+        Driver.asignarSesion(new SesionNavegador(driver, driver, new WebDriverWait(driver, Duration.ofSeconds(1))));
+    }
+}
@@ -0,0 +1,67 @@
+package utilidades;
+// Clase ReporteBenchmark: mide lo que cuesta a un paso registrar mensajes en Reporte,
+// con y sin captura, y el volcado de un lote completo por el hilo escritor.
+// Se mide por lotes de tamaño fijo: en modo de tiempo medio la cola crecería sin límite
+// y el reporte en memoria con ella
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, batchSize = ReporteBenchmark.LOTE)
+@Measurement(iterations = 20, batchSize = ReporteBenchmark.LOTE)
+@State(Scope.Benchmark)
+public class ReporteBenchmark {
+
+    // Mensajes por iteración, igual al tamaño de lote por defecto de Reporte
+    static final int LOTE = 50;
+    private static final String CAPTURA = "../capturas/0f1e2d3c4b5a69788796a5b4c3d2e1f00f1e2d3c4b5a69788796a5b4c3d2e1f0.jpg";
+
+    private Reporte.Prueba test;
+
+    @Setup(Level.Iteration)
+    public void crearPrueba() {
+        test = Reporte.createTest("Benchmark de Reporte");
+    }
+
+    @TearDown(Level.Iteration)
+    public void volcar() {
+        // El volcado de logSinCaptura y logConCaptura queda fuera de la medición
+        Reporte.flush();
+    }
+
+    @Benchmark
+    public void logSinCaptura() {
+        Reporte.logInfo(test, "Mensaje de prueba sin captura", null);
+    }
+
+    @Benchmark
+    public void logConCaptura() {
+        Reporte.logPass(test, "Mensaje de prueba con captura", CAPTURA);
+    }
+
+    /**
+     * Un lote completo más su volcado al HTML por el hilo escritor
+     */
+    @Benchmark
+    @Warmup(iterations = 5, batchSize = 1)
+    @Measurement(iterations = 20, batchSize = 1)
+    public void loteConVolcado() {
+        for (int i = 0; i < LOTE; i++) {
+            Reporte.logPass(test, "Mensaje " + i + " del lote", i % 2 == 0 ? CAPTURA : null);
+        }
+        Reporte.flush();
+    }
+}
@@ -1,92 +1,270 @@
 package utilidades;
 // Clase Driver centraliza la gestión del WebDriver para evitar duplicación
+import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.HasCapabilities;
+import org.openqa.selenium.SessionNotCreatedException;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.chrome.ChromeDriver;
 import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.chromium.ChromiumOptions;
 import org.openqa.selenium.edge.EdgeDriver;
+import org.openqa.selenium.devtools.HasDevTools;
+import org.openqa.selenium.devtools.NetworkInterceptor;
+import org.openqa.selenium.edge.EdgeOptions;
 import org.openqa.selenium.firefox.FirefoxDriver;
 import org.openqa.selenium.firefox.FirefoxOptions;
+import org.openqa.selenium.remote.Browser;
+import org.openqa.selenium.remote.http.Filter;
+import org.openqa.selenium.support.events.EventFiringDecorator;
 import org.openqa.selenium.support.ui.WebDriverWait;
-import io.github.bonigarcia.wdm.WebDriverManager;
 import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 public class Driver {
-    private static ThreadLocal<WebDriver> driver = new ThreadLocal<>();
-    private static ThreadLocal<WebDriverWait> wait = new ThreadLocal<>();
+    // Sesión del pool que tiene asignada el hilo actual
+    private static ThreadLocal<SesionNavegador> sesion = new ThreadLocal<>();
 
     // Tiempo de espera aumentado a 20 segundos
     private static final int WAIT_TIMEOUT = 20;
+    // Intervalo de sondeo de la espera explícita (-Despera.intervaloMs); el de Selenium por defecto es 500 ms
+    private static final long INTERVALO_ESPERA_MS = Long.getLong("espera.intervaloMs", 100L);
+
+    // Número máximo de navegadores vivos a la vez (-Dpool.maximo); por defecto uno por hilo de ejecución
+    private static final int POOL_MAXIMO = Integer.getInteger("pool.maximo", Integer.getInteger("hilos", 1));
+    // Escenarios que puede atender un navegador antes de reciclarlo (-Dpool.maxReusos)
+    private static final int MAX_REUSOS = Integer.getInteger("pool.maxReusos", 25);
+    // Segundos que un escenario espera por una sesión libre cuando el pool está lleno
+    private static final int ESPERA_POOL = 120;
+    // Mientras espera, cada cuánto vuelve a mirar si se liberó un cupo (una sesión descartada no vuelve a la cola)
+    private static final long INTERVALO_POOL_MS = 200;
+
+    private static final BlockingDeque<SesionNavegador> libres = new LinkedBlockingDeque<>();
+    private static final Set<SesionNavegador> activas = ConcurrentHashMap.newKeySet();
+    private static final Semaphore cupos = new Semaphore(POOL_MAXIMO);
+
+    // Mide los comandos de todos los navegadores; no guarda estado por sesión
+    private static final EscuchaComandos ESCUCHA = new EscuchaComandos();
+
+    static {
+        // Garantiza que ningún navegador quede abierto al terminar la JVM
+        Runtime.getRuntime().addShutdownHook(new Thread(Driver::cerrarTodos));
+    }
 
     /**
      * Obtiene o crea una instancia de WebDriver para el hilo actual
      */
     public static WebDriver getDriver() {
-        if (driver.get() == null) {
-            initDriver();
+        if (sesion.get() == null) {
+            sesion.set(obtenerSesion());
         }
-        return driver.get();
+        return sesion.get().getDriver();
     }
 
     /**
      * Obtiene o crea una instancia de WebDriverWait para el hilo actual
      */
     public static WebDriverWait getWait() {
-        if (wait.get() == null && driver.get() != null) {
-            wait.set(new WebDriverWait(driver.get(), Duration.ofSeconds(WAIT_TIMEOUT)));
+        if (sesion.get() == null) {
+            return null;
+        }
+        return sesion.get().getWait();
+    }
+
+    /**
+     * Asigna al hilo actual una sesión creada fuera del pool (por ejemplo con un WebDriver simulado en los benchmarks)
+     */
+    static void asignarSesion(SesionNavegador nueva) {
+        sesion.set(nueva);
+    }
+
+    /**
+     * Entrega una sesión libre y saludable del pool, o crea una nueva si hay cupo
+     */
+    private static SesionNavegador obtenerSesion() {
+        while (true) {
+            SesionNavegador libre = libres.pollFirst();
+            long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(ESPERA_POOL);
+            while (libre == null) {
+                // Se reintenta el cupo en cada vuelta: descartar() libera cupos sin dejar nada en la cola
+                if (cupos.tryAcquire()) {
+                    try {
+                        return initDriver();
+                    } catch (RuntimeException e) {
+                        cupos.release();
+                        throw e;
+                    }
+                }
+                if (System.nanoTime() - limite > 0) {
+                    throw new IllegalStateException("No hay sesiones de navegador disponibles en el pool");
+                }
+                try {
+                    libre = libres.pollFirst(INTERVALO_POOL_MS, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrumpido esperando una sesión del pool", e);
+                }
+            }
+
+            if (libre.estaSana()) {
+                return libre;
+            }
+            System.out.println("Sesión del pool sin respuesta, se reemplaza por una nueva");
+            descartar(libre);
         }
-        return wait.get();
     }
 
     /**
      * Inicializa el WebDriver según el navegador configurado
      */
-    private static void initDriver() {
+    private static SesionNavegador initDriver() {
         String browser = System.getProperty("browser", "chrome").toLowerCase();
+        if (!browser.equals("firefox") && !browser.equals("edge")) {
+            browser = "chrome";
+        }
+        PerfilNavegador perfil = PerfilNavegador.actual();
         WebDriver webDriver;
 
-        switch (browser) {
-            case "firefox":
-                webDriver = setupFirefoxDriver();
-                break;
-            case "edge":
-                webDriver = setupEdgeDriver();
-                break;
-            case "chrome":
-            default:
-                webDriver = setupChromeDriver();
-                break;
+        try {
+            webDriver = crearNavegador(browser, perfil);
+        } catch (SessionNotCreatedException e) {
+            // El driver cacheado puede no corresponder al navegador instalado: se resuelve de nuevo y se reintenta
+            if (NodosGrid.activo() || !ResolutorDrivers.invalidar(browser)) {
+                throw e;
+            }
+            System.out.println("El driver cacheado no es compatible con el navegador, se vuelve a resolver");
+            webDriver = crearNavegador(browser, perfil);
         }
+        try {
+            SesionNavegador nueva = configurar(browser, perfil, webDriver);
+            activas.add(nueva);
+            return nueva;
+        } catch (RuntimeException e) {
+            // El navegador ya está abierto: si la configuración falla hay que cerrarlo para no dejar el proceso vivo
+            try {
+                webDriver.quit();
+            } catch (RuntimeException cierre) {
+                e.addSuppressed(cierre);
+            }
+            throw e;
+        }
+    }
 
-        webDriver.manage().window().maximize();
-        webDriver.manage().timeouts().implicitlyWait(Duration.ofSeconds(5));
+    /**
+     * Ventana, tiempos de espera, vigilante de diálogos, interceptor de red y estado de sesión del navegador recién creado
+     */
+    private static SesionNavegador configurar(String browser, PerfilNavegador perfil, WebDriver webDriver) {
+        if (!NodosGrid.activo()) {
+            ResolutorDrivers.registrarVersion(browser, ((HasCapabilities) webDriver).getCapabilities().getBrowserVersion());
+        }
+
+        if (perfil.isMaximizar()) {
+            webDriver.manage().window().maximize();
+        } else {
+            // Tamaño fijo: las capturas y el diseño de la página no dependen del monitor del agente
+            webDriver.manage().window().setSize(new Dimension(PerfilNavegador.ANCHO_VENTANA, PerfilNavegador.ALTO_VENTANA));
+        }
+        // Sin espera implícita: una búsqueda sin resultados vuelve enseguida y las esperas explícitas no se suman a ella
+        webDriver.manage().timeouts().implicitlyWait(Duration.ZERO);
         webDriver.manage().timeouts().pageLoadTimeout(Duration.ofSeconds(30));
         webDriver.manage().timeouts().scriptTimeout(Duration.ofSeconds(30));
 
-        driver.set(webDriver);
-        wait.set(new WebDriverWait(webDriver, Duration.ofSeconds(WAIT_TIMEOUT)));
+        // Cierra los banners de cookies en cuanto aparecen, en cada página que cargue el navegador
+        VigilanteDialogos.instalar(webDriver);
+
+        // Los escenarios reciben el navegador decorado: cada comando y cada espera quedan medidos en Metricas
+        WebDriver decorado = new EventFiringDecorator<WebDriver>(ESCUCHA).decorate(webDriver);
+        EsperaMedida espera = new EsperaMedida(decorado, Duration.ofSeconds(WAIT_TIMEOUT), "explicita");
+        espera.pollingEvery(Duration.ofMillis(INTERVALO_ESPERA_MS));
+        SesionNavegador nueva = new SesionNavegador(webDriver, decorado, espera);
+        instalarInterceptor(nueva, webDriver);
+        // Cookies y localStorage del navegador calentado: el escenario no tiene que aceptar cookies ni iniciar sesión
+        nueva.restaurarEstado();
+        return nueva;
     }
 
     /**
-     * Configura ChromeDriver con opciones optimizadas
+     * Instala en navegadores con DevTools (Chrome y Edge) un único interceptor de red con el filtro de recursos
+     * y la grabación o reproducción (-Dred.modo). Las peticiones bloqueadas no llegan a grabarse
      */
-    private static WebDriver setupChromeDriver() {
-        // Configurar ChromeDriver usando WebDriverManager
-        WebDriverManager.chromedriver().setup();
+    private static void instalarInterceptor(SesionNavegador sesionNueva, WebDriver webDriver) {
+        if (!esChromium(webDriver)) {
+            // Firefox bloquea recursos con las preferencias de FiltroRecursos.aplicarFirefox, sin interceptor
+            if (GrabadorRed.activo()) {
+                System.out.println("La grabación de red requiere DevTools (Chrome o Edge); se continúa sin ella");
+            }
+            return;
+        }
+        Filter filtro = FiltroRecursos.activo() ? FiltroRecursos.filtro(GrabadorRed.activo()) : null;
+        if (GrabadorRed.activo()) {
+            filtro = filtro == null ? GrabadorRed.filtro() : filtro.andThen(GrabadorRed.filtro());
+        }
+        if (filtro != null) {
+            sesionNueva.setInterceptor(new NetworkInterceptor(webDriver, filtro));
+        }
+    }
+
+    /**
+     * Chrome o Edge, local o de un Grid (aumentado con DevTools). FirefoxDriver también implementa HasDevTools,
+     * pero su CDP no tiene el dominio Fetch que usa NetworkInterceptor
+     */
+    private static boolean esChromium(WebDriver webDriver) {
+        if (!(webDriver instanceof HasDevTools) || !(webDriver instanceof HasCapabilities)) {
+            return false;
+        }
+        Capabilities capacidades = ((HasCapabilities) webDriver).getCapabilities();
+        return Browser.CHROME.is(capacidades) || Browser.EDGE.is(capacidades);
+    }
+
+    /**
+     * Crea el navegador en un Selenium Grid si hay alguno configurado (-Dgrid.urls) o en la máquina local
+     */
+    private static WebDriver crearNavegador(String browser, PerfilNavegador perfil) {
+        switch (browser) {
+            case "firefox":
+                return iniciar(browser, setupFirefoxDriver(perfil));
+            case "edge":
+                return iniciar(browser, setupEdgeDriver(perfil));
+            default:
+                return iniciar(browser, setupChromeDriver(perfil));
+        }
+    }
+
+    private static WebDriver iniciar(String browser, Capabilities options) {
+        if (NodosGrid.activo()) {
+            return NodosGrid.crearSesion(options);
+        }
+        // Configurar el driver local (WebDriverManager solo se consulta la primera vez)
+        ResolutorDrivers.resolver(browser);
+        switch (browser) {
+            case "firefox":
+                return new FirefoxDriver((FirefoxOptions) options);
+            case "edge":
+                return new EdgeDriver((EdgeOptions) options);
+            default:
+                return new ChromeDriver((ChromeOptions) options);
+        }
+    }
 
+    /**
+     * Configura las opciones de Chrome optimizadas
+     */
+    private static ChromeOptions setupChromeDriver(PerfilNavegador perfil) {
         ChromeOptions options = new ChromeOptions();
 
         // Configuraciones para evitar detección como bot
         options.addArguments("--disable-blink-features=AutomationControlled");
         options.addArguments("--disable-infobars");
         options.addArguments("--disable-notifications");
-        options.addArguments("--start-maximized");
 
         // User-Agent más realista
         options.addArguments("--user-agent=Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/136.0.7103.49 Safari/537.36");
 
-        // Evitar problemas con el sandbox (opcional, usar con precaución)
-        // options.addArguments("--no-sandbox");
-        // options.addArguments("--disable-dev-shm-usage");
-
         // Desactivar extensiones
         options.addArguments("--disable-extensions");
 
@@ -96,16 +274,15 @@ public class Driver {
         // Evitar mostrar el mensaje "Chrome está siendo controlado por software automatizado"
         options.setExperimentalOption("excludeSwitches", java.util.Arrays.asList("enable-automation"));
 
-        return new ChromeDriver(options);
+        aplicarPerfilChromium(options, perfil);
+
+        return options;
     }
 
     /**
-     * Configura FirefoxDriver con opciones optimizadas
+     * Configura las opciones de Firefox optimizadas
      */
-    private static WebDriver setupFirefoxDriver() {
-        // Configurar FirefoxDriver usando WebDriverManager
-        WebDriverManager.firefoxdriver().setup();
-
+    private static FirefoxOptions setupFirefoxDriver(PerfilNavegador perfil) {
         FirefoxOptions options = new FirefoxOptions();
         options.addArguments("-private");
 
@@ -113,30 +290,116 @@ public class Driver {
         options.addPreference("general.useragent.override",
                 "Mozilla/5.0 (Windows NT 10.0; Win64; x64; rv:120.0) Gecko/20100101 Firefox/120.0");
 
-        return new FirefoxDriver(options);
+        if (perfil.isHeadless()) {
+            options.addArguments("-headless");
+            options.addArguments("--width=" + PerfilNavegador.ANCHO_VENTANA, "--height=" + PerfilNavegador.ALTO_VENTANA);
+        }
+        if (!perfil.isCargarImagenes()) {
+            options.addPreference("permissions.default.image", 2);
+        }
+        if (perfil.isRecortarRecursos()) {
+            // Equivalentes de Firefox: sin aceleración por GPU ni presupuesto de timers en segundo plano
+            options.addPreference("layers.acceleration.disabled", true);
+            options.addPreference("gfx.webrender.software", true);
+            options.addPreference("dom.timeout.enable_budget_timer_throttling", false);
+            options.addPreference("dom.min_background_timeout_value", 4);
+            options.addPreference("media.autoplay.default", 5);
+        }
+        // Sin interceptor de red en Firefox: el bloqueo de anuncios y tipos de recurso va por preferencias
+        FiltroRecursos.aplicarFirefox(options);
+
+        return options;
     }
 
     /**
-     * Configura EdgeDriver
+     * Configura las opciones de Edge
      */
-    private static WebDriver setupEdgeDriver() {
-        // Configurar EdgeDriver usando WebDriverManager
-        WebDriverManager.edgedriver().setup();
+    private static EdgeOptions setupEdgeDriver(PerfilNavegador perfil) {
+        EdgeOptions options = new EdgeOptions();
+        aplicarPerfilChromium(options, perfil);
 
-        return new EdgeDriver();
+        return options;
+    }
+
+    /**
+     * Aplica el perfil de rendimiento a Chrome y Edge, que comparten las mismas opciones de Chromium
+     */
+    private static void aplicarPerfilChromium(ChromiumOptions<?> options, PerfilNavegador perfil) {
+        if (perfil.isMaximizar()) {
+            options.addArguments("--start-maximized");
+        } else {
+            options.addArguments("--window-size=" + PerfilNavegador.ANCHO_VENTANA + "," + PerfilNavegador.ALTO_VENTANA);
+        }
+        if (perfil.isHeadless()) {
+            options.addArguments("--headless=new");
+        }
+        if (!perfil.isCargarImagenes()) {
+            options.addArguments("--blink-settings=imagesEnabled=false");
+            options.setExperimentalOption("prefs", Map.of("profile.managed_default_content_settings.images", 2));
+        }
+        if (perfil.isRecortarRecursos()) {
+            options.addArguments("--disable-gpu");
+            // Memoria compartida en /tmp en lugar de /dev/shm, que en contenedores suele ser de 64 MB
+            options.addArguments("--disable-dev-shm-usage");
+            options.addArguments("--no-sandbox");
+            options.addArguments("--disable-background-timer-throttling");
+            options.addArguments("--disable-backgrounding-occluded-windows");
+            options.addArguments("--disable-renderer-backgrounding");
+        }
+    }
+
+    /**
+     * Devuelve la sesión del hilo actual al pool, limpia para el siguiente escenario.
+     * Si superó el máximo de reusos o no se puede limpiar, se cierra y se libera su cupo.
+     */
+    public static void liberarDriver() {
+        SesionNavegador actual = sesion.get();
+        if (actual == null) {
+            return;
+        }
+        sesion.remove();
+
+        actual.registrarUso();
+        if (actual.getUsos() >= MAX_REUSOS) {
+            System.out.println("Sesión reciclada tras " + actual.getUsos() + " escenarios");
+            descartar(actual);
+            return;
+        }
+
+        try {
+            actual.reiniciar();
+            libres.offerFirst(actual); // LIFO: la sesión más reciente es la que está más "caliente"
+        } catch (Exception e) {
+            System.out.println("No se pudo reiniciar la sesión, se descarta: " + e.getMessage());
+            descartar(actual);
+        }
     }
 
     /**
      * Cierra el WebDriver actual
      */
     public static void quitDriver() {
-        if (driver.get() != null) {
-            driver.get().quit();
-            driver.remove();
+        SesionNavegador actual = sesion.get();
+        if (actual != null) {
+            sesion.remove();
+            descartar(actual);
+        }
+    }
+
+    /**
+     * Cierra todos los navegadores del pool, tanto libres como en uso
+     */
+    public static void cerrarTodos() {
+        libres.clear();
+        for (SesionNavegador s : activas) {
+            descartar(s);
         }
+    }
 
-        if (wait.get() != null) {
-            wait.remove();
+    private static void descartar(SesionNavegador s) {
+        if (activas.remove(s)) {
+            s.cerrar();
+            cupos.release();
         }
     }
 }
@@ -0,0 +1,83 @@
+package utilidades;
+// Clase EscuchaComandos: mide cada comando que los escenarios envían al navegador a través del
+// WebDriver decorado que entrega Driver, y alimenta el perfil de comandos del escenario en curso
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.remote.RemoteWebElement;
+import org.openqa.selenium.support.events.WebDriverListener;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Set;
+
+class EscuchaComandos implements WebDriverListener {
+
+    // Métodos sin argumentos que solo devuelven objetos auxiliares o datos locales: no viajan al navegador.
+    // window() sin argumentos es local, pero switchTo().window(handle) sí es un comando.
+    private static final Set<String> LOCALES = Set.of("manage", "navigate", "switchTo", "window", "timeouts",
+            "logs", "getWrappedDriver", "getWrappedElement", "toString", "hashCode");
+
+    // Inicio de los comandos en curso del hilo actual
+    private final ThreadLocal<Deque<Long>> inicios = ThreadLocal.withInitial(ArrayDeque::new);
+
+    @Override
+    public void beforeAnyCall(Object target, Method method, Object[] args) {
+        if (esLocal(method, args)) {
+            return;
+        }
+        if (args != null && args.length == 1 && args[0] instanceof By) {
+            PerfilComandos.busqueda(contexto(target), args[0].toString());
+        }
+        inicios.get().push(System.nanoTime());
+    }
+
+    @Override
+    public void afterAnyCall(Object target, Method method, Object[] args, Object result) {
+        terminar(target, method, args);
+    }
+
+    @Override
+    public void onError(Object target, Method method, Object[] args, InvocationTargetException e) {
+        // Un comando fallido también cuenta: un findElement que no encuentra nada espera la espera implícita completa
+        terminar(target, method, args);
+    }
+
+    private void terminar(Object target, Method method, Object[] args) {
+        if (esLocal(method, args) || inicios.get().isEmpty()) {
+            return;
+        }
+        long nanos = System.nanoTime() - inicios.get().pop();
+        String nombre = nombre(target, method);
+        Metricas.registrar(Metricas.COMANDO, nombre, nanos);
+        PerfilComandos.registrar(nombre, method.getName(), nanos);
+    }
+
+    private static boolean esLocal(Method method, Object[] args) {
+        return method.getName().equals("equals")
+                || LOCALES.contains(method.getName()) && (args == null || args.length == 0);
+    }
+
+    /**
+     * Contexto de una búsqueda: el documento o el elemento concreto desde el que se busca
+     */
+    private static String contexto(Object target) {
+        if (target instanceof RemoteWebElement) {
+            return ((RemoteWebElement) target).getId();
+        }
+        return target instanceof WebElement ? String.valueOf(System.identityHashCode(target)) : "documento";
+    }
+
+    /**
+     * Nombre del comando según el objeto que lo recibe, por ejemplo WebDriver.findElements o WebElement.click
+     */
+    static String nombre(Object target, Method method) {
+        String tipo = target instanceof WebElement ? "WebElement"
+                : target instanceof WebDriver ? "WebDriver"
+                : method.getDeclaringClass().getSimpleName();
+        return tipo + "." + method.getName();
+    }
+}
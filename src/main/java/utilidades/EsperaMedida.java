@@ -0,0 +1,31 @@
+package utilidades;
+// Clase EsperaMedida: WebDriverWait que registra en Metricas cuánto tiempo pasa esperando cada condición
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.ui.WebDriverWait;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+public class EsperaMedida extends WebDriverWait {
+
+    private final String nombre; // Nombre con el que se agrupan sus tiempos en Metricas
+
+    public EsperaMedida(WebDriver driver, Duration timeout, String nombre) {
+        super(driver, timeout);
+        this.nombre = nombre;
+    }
+
+    @Override
+    public <V> V until(Function<? super WebDriver, V> isTrue) {
+        long inicio = Metricas.inicio();
+        PerfilComandos.entrarEspera(); // Las búsquedas repetidas del sondeo no son redundantes
+        try {
+            return super.until(isTrue);
+        } finally {
+            PerfilComandos.salirEspera();
+            // También se registra la espera agotada: es la que más tiempo cuesta
+            Metricas.registrarDesde(Metricas.ESPERA, nombre, inicio);
+        }
+    }
+}
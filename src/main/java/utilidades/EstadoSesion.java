@@ -0,0 +1,233 @@
+package utilidades;
+// Clase EstadoSesion: guarda las cookies y el localStorage de un navegador ya "calentado" (consentimiento de
+// cookies aceptado, idioma, sesión de la cuenta de pruebas) y los restaura en los navegadores nuevos o reiniciados
+// antes de su primera navegación, para que cada escenario empiece con una sola carga de página
+
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.chromium.HasCdp;
+import org.openqa.selenium.json.Json;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class EstadoSesion {
+
+    // false para que cada navegador empiece sin estado (-Destado.sesion)
+    private static final boolean ACTIVO = Boolean.parseBoolean(System.getProperty("estado.sesion", "true"));
+    // Archivo donde se guarda el estado (-Destado.archivo)
+    private static final Path ARCHIVO = Paths.get(System.getProperty("estado.archivo", "target/estado-sesion.json"));
+    // Antigüedad máxima del estado guardado; pasado ese tiempo se vuelve a calentar (-Destado.horas)
+    private static final Duration VIGENCIA = Duration.ofHours(Long.getLong("estado.horas", 12L));
+
+    // Siembra el localStorage guardado en los documentos de su origen, sin pisar lo que la página ya haya escrito
+    private static final String SCRIPT_SEMBRAR = "(function (origen, datos) {"
+            + "  if (location.origin !== origen) { return; }"
+            + "  try { for (var k in datos) { if (localStorage.getItem(k) === null) { localStorage.setItem(k, datos[k]); } } }"
+            + "  catch (e) {}"
+            + "})(%s, %s);";
+
+    private static final String SCRIPT_LEER_ALMACENAMIENTO = "var datos = {};"
+            + "for (var i = 0; i < localStorage.length; i++) { var k = localStorage.key(i); datos[k] = localStorage.getItem(k); }"
+            + "return datos;";
+
+    private static volatile Map<String, Object> estado; // Estado cargado o guardado en esta ejecución
+
+    /**
+     * Indica si hay que calentar un navegador y guardar su estado: no hay estado vigente para el sitio de la URL
+     */
+    public static boolean hayQueCalentar(String url) {
+        if (!ACTIVO) {
+            return false;
+        }
+        Map<String, Object> actual = cargar();
+        return actual == null || !origen(url).equals(actual.get("origen"));
+    }
+
+    /**
+     * Guarda el estado del navegador, que debe estar en una página del sitio ya calentada
+     */
+    public static synchronized void guardar(WebDriver driver) {
+        if (!ACTIVO) {
+            return;
+        }
+        Map<String, Object> nuevo = new LinkedHashMap<>();
+        nuevo.put("origen", origen(driver.getCurrentUrl()));
+        nuevo.put("creado", Instant.now().toString());
+        nuevo.put("cookies", leerCookies(driver));
+        nuevo.put("localStorage", ((JavascriptExecutor) driver).executeScript(SCRIPT_LEER_ALMACENAMIENTO));
+        try {
+            Files.createDirectories(ARCHIVO.toAbsolutePath().getParent());
+            // Se escribe aparte y se mueve para que otro hilo nunca lea un archivo a medias
+            Path temporal = Files.createTempFile(ARCHIVO.toAbsolutePath().getParent(), "estado", ".json");
+            Files.writeString(temporal, new Json().toJson(nuevo));
+            Files.move(temporal, ARCHIVO, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.out.println("No se pudo guardar el estado de la sesión: " + e.getMessage());
+            return;
+        }
+        estado = nuevo;
+        System.out.println("Estado de sesión guardado en " + ARCHIVO + " ("
+                + ((List<?>) nuevo.get("cookies")).size() + " cookies)");
+    }
+
+    /**
+     * Restaura el estado guardado en un navegador que está en about:blank, solo si se guardó para el sitio contra
+     * el que se ejecuta (-Damazon.url): las cookies de amazon.com no sirven a los fixtures locales ni al revés.
+     * En Chrome y Edge las cookies se cargan por CDP sin navegar y el localStorage se siembra con un script que
+     * queda registrado para toda la vida del navegador; en Firefox hace falta una carga ligera del sitio.
+     *
+     * @param sembrarAlmacenamiento registrar la siembra del localStorage (en Chrome y Edge basta con una vez)
+     * @return true si la siembra del localStorage quedó registrada para el resto de la sesión
+     */
+    static boolean restaurar(WebDriver driver, boolean sembrarAlmacenamiento) {
+        Map<String, Object> actual = ACTIVO ? cargar() : null;
+        if (actual == null || !origen(sitio()).equals(actual.get("origen"))) {
+            // Sin estado, o de otro sitio: el primer escenario lo vuelve a calentar y guardar para este
+            return false;
+        }
+        List<Map<String, Object>> cookies = vigentes(actual.get("cookies"));
+        String script = String.format(SCRIPT_SEMBRAR, new Json().toJson(actual.get("origen")),
+                new Json().toJson(actual.get("localStorage")));
+        try {
+            if (driver instanceof HasCdp) {
+                HasCdp cdp = (HasCdp) driver;
+                cdp.executeCdpCommand("Network.setCookies", Map.of("cookies", cookies));
+                if (sembrarAlmacenamiento) {
+                    cdp.executeCdpCommand("Page.addScriptToEvaluateOnNewDocument", Map.of("source", script));
+                }
+                return sembrarAlmacenamiento;
+            }
+            // Sin CDP las cookies solo se pueden añadir desde una página de su dominio
+            driver.get(actual.get("origen") + "/robots.txt");
+            for (Map<String, Object> cookie : cookies) {
+                try {
+                    driver.manage().addCookie(cookie(cookie));
+                } catch (WebDriverException e) {
+                    // Cookie de otro dominio (por ejemplo de un tercero): no se puede añadir desde aquí
+                }
+            }
+            ((JavascriptExecutor) driver).executeScript(script);
+            driver.get("about:blank");
+        } catch (WebDriverException e) {
+            System.out.println("No se pudo restaurar el estado de la sesión: " + e.getMessage());
+        }
+        return false;
+    }
+
+    private static Map<String, Object> cargar() {
+        if (estado == null && Files.exists(ARCHIVO)) {
+            synchronized (EstadoSesion.class) {
+                try {
+                    if (estado == null && Files.getLastModifiedTime(ARCHIVO).toInstant()
+                            .isAfter(Instant.now().minus(VIGENCIA))) {
+                        estado = new Json().toType(Files.readString(ARCHIVO), Json.MAP_TYPE);
+                    }
+                } catch (IOException | RuntimeException e) {
+                    System.out.println("Estado de sesión ilegible, se volverá a calentar: " + e.getMessage());
+                }
+            }
+        }
+        return estado;
+    }
+
+    /**
+     * Cookies de todos los dominios si el navegador tiene CDP; si no, las del dominio actual
+     */
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> leerCookies(WebDriver driver) {
+        List<Map<String, Object>> cookies = new ArrayList<>();
+        if (driver instanceof HasCdp) {
+            Map<String, Object> respuesta = ((HasCdp) driver).executeCdpCommand("Network.getAllCookies", Map.of());
+            for (Map<String, Object> c : (List<Map<String, Object>>) respuesta.get("cookies")) {
+                Map<String, Object> cookie = new LinkedHashMap<>();
+                for (String campo : List.of("name", "value", "domain", "path", "secure", "httpOnly", "sameSite")) {
+                    if (c.get(campo) != null) {
+                        cookie.put(campo, c.get(campo));
+                    }
+                }
+                if (!Boolean.TRUE.equals(c.get("session"))) {
+                    cookie.put("expires", ((Number) c.get("expires")).longValue());
+                }
+                cookies.add(cookie);
+            }
+            return cookies;
+        }
+        for (Cookie c : driver.manage().getCookies()) {
+            Map<String, Object> cookie = new LinkedHashMap<>();
+            cookie.put("name", c.getName());
+            cookie.put("value", c.getValue());
+            cookie.put("domain", c.getDomain());
+            cookie.put("path", c.getPath());
+            cookie.put("secure", c.isSecure());
+            cookie.put("httpOnly", c.isHttpOnly());
+            if (c.getSameSite() != null) {
+                cookie.put("sameSite", c.getSameSite());
+            }
+            if (c.getExpiry() != null) {
+                cookie.put("expires", c.getExpiry().getTime() / 1000);
+            }
+            cookies.add(cookie);
+        }
+        return cookies;
+    }
+
+    /**
+     * Descarta las cookies que caducaron desde que se guardó el estado
+     */
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> vigentes(Object cookies) {
+        long ahora = Instant.now().getEpochSecond();
+        List<Map<String, Object>> vigentes = new ArrayList<>();
+        for (Map<String, Object> cookie : (List<Map<String, Object>>) cookies) {
+            Object expira = cookie.get("expires");
+            if (expira == null || ((Number) expira).longValue() > ahora) {
+                vigentes.add(cookie);
+            }
+        }
+        return vigentes;
+    }
+
+    private static Cookie cookie(Map<String, Object> datos) {
+        Cookie.Builder builder = new Cookie.Builder((String) datos.get("name"), (String) datos.get("value"))
+                .domain((String) datos.get("domain"))
+                .path((String) datos.get("path"))
+                .isSecure(Boolean.TRUE.equals(datos.get("secure")))
+                .isHttpOnly(Boolean.TRUE.equals(datos.get("httpOnly")));
+        if (datos.get("sameSite") != null) {
+            builder.sameSite((String) datos.get("sameSite"));
+        }
+        if (datos.get("expires") != null) {
+            builder.expiresOn(new Date(((Number) datos.get("expires")).longValue() * 1000));
+        }
+        return builder.build();
+    }
+
+    /**
+     * URL del sitio contra el que se ejecuta; se lee en cada uso porque el servidor de fixtures la cambia al arrancar
+     */
+    private static String sitio() {
+        return System.getProperty("amazon.url", "https://www.amazon.com/");
+    }
+
+    /**
+     * Origen de una URL (esquema, host y puerto), por ejemplo https://www.amazon.com
+     */
+    private static String origen(String url) {
+        URI uri = URI.create(url);
+        return uri.getScheme() + "://" + uri.getHost() + (uri.getPort() > 0 ? ":" + uri.getPort() : "");
+    }
+}
@@ -0,0 +1,200 @@
+package utilidades;
+// Clase FiltroRecursos: bloquea en el navegador las peticiones que ningún paso necesita (anuncios, rastreadores,
+// vídeo, fuentes, imágenes según el perfil) para que las páginas carguen antes y con menos datos.
+// En Chrome y Edge se aplica como filtro del NetworkInterceptor (CDP); en Firefox, con preferencias equivalentes
+
+import org.openqa.selenium.devtools.NetworkInterceptor;
+import org.openqa.selenium.firefox.FirefoxOptions;
+import org.openqa.selenium.remote.http.Filter;
+import org.openqa.selenium.remote.http.HttpRequest;
+import org.openqa.selenium.remote.http.HttpResponse;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+public class FiltroRecursos {
+
+    // Activa el filtro (-Drecursos.filtro); por defecto siempre, el perfil decide qué tipos se bloquean
+    private static final boolean ACTIVO = Boolean.parseBoolean(System.getProperty("recursos.filtro", "true"));
+    // Patrones de URL bloqueados (-Drecursos.denegar, separados por comas, * como comodín): anuncios y métricas
+    private static final List<Pattern> DENEGAR = patrones(System.getProperty("recursos.denegar",
+            "*://*.amazon-adsystem.com/*,*://*.doubleclick.net/*,*://*.google-analytics.com/*,"
+                    + "*://*.googletagmanager.com/*,*://*.facebook.net/*,*://fls-na.amazon.com/*,"
+                    + "*://unagi.amazon.com/*,*://*.cloudfront-labs.amazonaws.com/*"));
+    // Patrones que nunca se bloquean, aunque coincidan con una regla de URL o de tipo (-Drecursos.permitir)
+    private static final List<Pattern> PERMITIR = patrones(System.getProperty("recursos.permitir", ""));
+    // Tipos de recurso bloqueados (-Drecursos.tipos=imagen,media,fuente); por defecto los del perfil.
+    // Se leen en el primer uso para que un -Dperfil desconocido falle con su propio mensaje
+    private static volatile Set<String> tipos;
+
+    // Tamaño típico de cada tipo de recurso, para estimar los bytes que no se descargan
+    private static final Map<String, Long> BYTES_TIPICOS = Map.of(
+            "imagen", 20_000L, "media", 500_000L, "fuente", 30_000L, "script", 25_000L,
+            "estilo", 10_000L, "documento", 30_000L, "otro", 5_000L);
+
+    private static final AtomicLong revisadas = new AtomicLong();
+    private static final AtomicLong sesionesPorPreferencias = new AtomicLong(); // Firefox: bloqueo sin contadores
+    private static final AtomicLong bytesEstimados = new AtomicLong();
+    private static final Map<String, AtomicLong> bloqueadasPorMotivo = new ConcurrentHashMap<>();
+
+    public static boolean activo() {
+        return ACTIVO && (!DENEGAR.isEmpty() || !tipos().isEmpty());
+    }
+
+    private static Set<String> tipos() {
+        if (tipos == null) {
+            tipos = Arrays.stream(System.getProperty("recursos.tipos",
+                            PerfilNavegador.actual().getRecursosBloqueados()).split(","))
+                    .map(String::trim)
+                    .map(tipo -> tipo.toLowerCase(Locale.ROOT))
+                    .filter(tipo -> !tipo.isEmpty())
+                    .collect(Collectors.toSet());
+        }
+        return tipos;
+    }
+
+    /**
+     * Filtro para NetworkInterceptor: responde 204 vacío a las peticiones bloqueadas sin que salgan a la red.
+     * Las demás siguen en el navegador sin pasar por Java (PROCEED_WITH_REQUEST); solo si detrás hay otro filtro
+     * que necesita la respuesta (la grabación de GrabadorRed) se le entregan con next.execute
+     */
+    public static Filter filtro(boolean hayFiltroDetras) {
+        return next -> req -> {
+            revisadas.incrementAndGet();
+            String motivo = motivoBloqueo(req);
+            if (motivo == null) {
+                return hayFiltroDetras ? next.execute(req) : NetworkInterceptor.PROCEED_WITH_REQUEST;
+            }
+            bloqueadasPorMotivo.computeIfAbsent(motivo, clave -> new AtomicLong()).incrementAndGet();
+            bytesEstimados.addAndGet(BYTES_TIPICOS.get(tipo(req)));
+            return new HttpResponse().setStatus(204);
+        };
+    }
+
+    /**
+     * Equivalente para Firefox, que en esta versión de Selenium no tiene interceptor de red: la protección contra
+     * rastreo sustituye a la lista de URLs y las preferencias de contenido a los tipos bloqueados
+     */
+    static void aplicarFirefox(FirefoxOptions options) {
+        if (!activo()) {
+            return;
+        }
+        sesionesPorPreferencias.incrementAndGet();
+        if (!DENEGAR.isEmpty()) {
+            options.addPreference("privacy.trackingprotection.enabled", true);
+            options.addPreference("privacy.trackingprotection.socialtracking.enabled", true);
+            options.addPreference("privacy.trackingprotection.cryptomining.enabled", true);
+        }
+        if (tipos().contains("imagen")) {
+            options.addPreference("permissions.default.image", 2);
+        }
+        if (tipos().contains("media")) {
+            options.addPreference("media.autoplay.default", 5);
+            options.addPreference("media.preload.default", 0);
+        }
+        if (tipos().contains("fuente")) {
+            options.addPreference("browser.display.use_document_fonts", 0);
+        }
+    }
+
+    /**
+     * Motivo por el que se bloquea la petición ("url" o "tipo:<tipo>"), o null si debe pasar.
+     * El documento principal nunca se bloquea por tipo: de él dependen todos los pasos
+     */
+    private static String motivoBloqueo(HttpRequest req) {
+        String url = req.getUri();
+        if (coincide(PERMITIR, url)) {
+            return null;
+        }
+        if (coincide(DENEGAR, url)) {
+            return "url";
+        }
+        String tipo = tipo(req);
+        if (!tipo.equals("documento") && tipos().contains(tipo)) {
+            return "tipo:" + tipo;
+        }
+        return null;
+    }
+
+    /**
+     * Tipo de recurso según la extensión de la URL y, si no la tiene, la cabecera Accept que envía el navegador
+     */
+    static String tipo(HttpRequest req) {
+        String ruta = req.getUri().toLowerCase(Locale.ROOT);
+        int fin = ruta.indexOf('?');
+        ruta = fin >= 0 ? ruta.substring(0, fin) : ruta;
+        String extension = ruta.substring(ruta.lastIndexOf('.') + 1);
+        switch (extension) {
+            case "png": case "jpg": case "jpeg": case "gif": case "webp": case "avif": case "svg": case "ico":
+                return "imagen";
+            case "mp4": case "webm": case "m3u8": case "m4s": case "mpd": case "ts": case "mp3": case "m4a": case "ogg":
+                return "media";
+            case "woff": case "woff2": case "ttf": case "otf": case "eot":
+                return "fuente";
+            case "css":
+                return "estilo";
+            case "js": case "mjs":
+                return "script";
+            default:
+        }
+        String accept = req.getHeader("Accept");
+        accept = accept == null ? "" : accept.toLowerCase(Locale.ROOT);
+        if (accept.startsWith("image/")) {
+            return "imagen";
+        }
+        if (accept.startsWith("video/") || accept.startsWith("audio/")) {
+            return "media";
+        }
+        if (accept.startsWith("text/css")) {
+            return "estilo";
+        }
+        if (accept.startsWith("text/html")) {
+            return "documento";
+        }
+        return "otro";
+    }
+
+    private static boolean coincide(List<Pattern> patrones, String url) {
+        for (Pattern patron : patrones) {
+            if (patron.matcher(url).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<Pattern> patrones(String lista) {
+        return Arrays.stream(lista.split(","))
+                .map(String::trim)
+                .filter(patron -> !patron.isEmpty())
+                .map(patron -> Pattern.compile(Arrays.stream(patron.split("\\*", -1))
+                        .map(Pattern::quote)
+                        .collect(Collectors.joining(".*")), Pattern.CASE_INSENSITIVE))
+                .toList();
+    }
+
+    /**
+     * Texto con las peticiones bloqueadas por motivo y los bytes que se dejaron de descargar (estimados)
+     */
+    public static String resumen() {
+        long bloqueadas = bloqueadasPorMotivo.values().stream().mapToLong(AtomicLong::get).sum();
+        StringBuilder texto = new StringBuilder(String.format(Locale.ROOT,
+                "Peticiones bloqueadas: %d de %d, unos %.1f MB sin descargar%n",
+                bloqueadas, revisadas.get(), bytesEstimados.get() / 1e6));
+        new TreeMap<>(bloqueadasPorMotivo).forEach((motivo, cantidad) -> texto.append(String.format(Locale.ROOT,
+                "  %-24s %6d%n", motivo, cantidad.get())));
+        if (sesionesPorPreferencias.get() > 0) {
+            texto.append(String.format(Locale.ROOT, "  %d sesiones de Firefox bloquean con preferencias, sin contar peticiones%n",
+                    sesionesPorPreferencias.get()));
+        }
+        return texto.toString();
+    }
+}
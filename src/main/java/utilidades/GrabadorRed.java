@@ -0,0 +1,205 @@
+package utilidades;
+// Clase GrabadorRed: graba las respuestas HTTP de las páginas en un archivo local y las reproduce después,
+// para ejecutar escenarios con entradas idénticas y a velocidad de disco (-Dred.modo=grabar|reproducir)
+
+import org.openqa.selenium.devtools.NetworkInterceptor;
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.json.TypeToken;
+import org.openqa.selenium.remote.http.Contents;
+import org.openqa.selenium.remote.http.Filter;
+import org.openqa.selenium.remote.http.HttpRequest;
+import org.openqa.selenium.remote.http.HttpResponse;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Type;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class GrabadorRed {
+
+    // Modo de red (-Dred.modo): grabar, reproducir o vacío (desactivado)
+    private static final String MODO = System.getProperty("red.modo", "").toLowerCase();
+    // Directorio del archivo de grabación (-Dred.archivo)
+    private static final Path DIRECTORIO = Paths.get(System.getProperty("red.archivo", "archivo-red"));
+    // Latencia fija añadida a cada respuesta reproducida (-Dred.latenciaMs)
+    private static final long LATENCIA_MS = Long.getLong("red.latenciaMs", 0L);
+    // Ancho de banda simulado en KB/s al reproducir (-Dred.kbps); 0 sin límite
+    private static final long KBPS = Long.getLong("red.kbps", 0L);
+    // Al reproducir, las peticiones no grabadas van a la red (false) o reciben 404 (true) (-Dred.estricto)
+    private static final boolean ESTRICTO = Boolean.getBoolean("red.estricto");
+
+    // Tipo de la columna de cabeceras del índice
+    private static final Type CABECERAS = new TypeToken<Map<String, List<String>>>() {
+    }.getType();
+
+    private static final Path DATOS = DIRECTORIO.resolve("datos.bin");
+    private static final Path INDICE = DIRECTORIO.resolve("indice.tsv");
+
+    // Cabeceras que no se graban: las de la conexión, y las de codificación y longitud, que ya no corresponden
+    // al cuerpo (DevTools lo entrega descomprimido)
+    private static final Set<String> CABECERAS_EXCLUIDAS = Set.of("connection", "keep-alive", "proxy-authenticate",
+            "proxy-authorization", "te", "trailer", "transfer-encoding", "upgrade", "content-encoding", "content-length");
+
+    private record Entrada(long posicion, int longitud, int estado, String tipo, Map<String, List<String>> cabeceras) {
+    }
+
+    // Clave de la petición -> ubicación de la respuesta dentro de datos.bin
+    private static final Map<String, Entrada> indice = new ConcurrentHashMap<>();
+    private static MappedByteBuffer mapa; // datos.bin mapeado en memoria (solo al reproducir)
+
+    public static boolean activo() {
+        return grabando() || reproduciendo();
+    }
+
+    private static boolean grabando() {
+        return MODO.equals("grabar");
+    }
+
+    private static boolean reproduciendo() {
+        return MODO.equals("reproducir");
+    }
+
+    /**
+     * Filtro para NetworkInterceptor según el modo configurado
+     */
+    public static synchronized Filter filtro() {
+        if (grabando()) {
+            return next -> req -> {
+                HttpResponse respuesta = next.execute(req);
+                byte[] cuerpo = Contents.bytes(respuesta.getContent());
+                respuesta.setContent(Contents.bytes(cuerpo)); // El contenido solo se puede leer una vez
+                guardar(clave(req), respuesta.getStatus(), respuesta.getHeader("Content-Type"), cabeceras(respuesta), cuerpo);
+                return respuesta;
+            };
+        }
+        cargarArchivo();
+        return next -> req -> {
+            Entrada entrada = indice.get(clave(req));
+            if (entrada == null) {
+                // Sin grabación la petición sigue en el navegador, sin traer su respuesta a Java
+                return ESTRICTO ? new HttpResponse().setStatus(404) : NetworkInterceptor.PROCEED_WITH_REQUEST;
+            }
+            byte[] cuerpo = leer(entrada);
+            simularRed(cuerpo.length);
+            HttpResponse respuesta = new HttpResponse().setStatus(entrada.estado());
+            // Location, Set-Cookie, Cache-Control...: sin ellas las redirecciones grabadas no llevan a ningún sitio
+            entrada.cabeceras().forEach((nombre, valores) -> valores.forEach(valor -> respuesta.addHeader(nombre, valor)));
+            if (entrada.tipo() != null && respuesta.getHeader("Content-Type") == null) {
+                respuesta.setHeader("Content-Type", entrada.tipo());
+            }
+            respuesta.setContent(Contents.bytes(cuerpo));
+            return respuesta;
+        };
+    }
+
+    private static String clave(HttpRequest req) {
+        String texto = req.getMethod() + " " + req.getUri();
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                    .digest(texto.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    private static Map<String, List<String>> cabeceras(HttpResponse respuesta) {
+        Map<String, List<String>> cabeceras = new LinkedHashMap<>();
+        for (String nombre : respuesta.getHeaderNames()) {
+            if (!CABECERAS_EXCLUIDAS.contains(nombre.toLowerCase(Locale.ROOT))) {
+                List<String> valores = new ArrayList<>();
+                respuesta.getHeaders(nombre).forEach(valores::add);
+                cabeceras.put(nombre, valores);
+            }
+        }
+        return cabeceras;
+    }
+
+    /**
+     * Añade la respuesta al final de datos.bin y registra su posición en el índice.
+     * Las cabeceras van en la última columna como JSON de una línea
+     */
+    private static synchronized void guardar(String clave, int estado, String tipo, Map<String, List<String>> cabeceras,
+                                             byte[] cuerpo) {
+        try {
+            Files.createDirectories(DIRECTORIO);
+            long posicion = Files.exists(DATOS) ? Files.size(DATOS) : 0;
+            Files.write(DATOS, cuerpo, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            StringWriter json = new StringWriter();
+            new Json().newOutput(json).setPrettyPrint(false).write(cabeceras);
+            String linea = clave + "\t" + posicion + "\t" + cuerpo.length + "\t" + estado + "\t"
+                    + (tipo == null ? "" : tipo) + "\t" + json + System.lineSeparator();
+            Files.writeString(INDICE, linea, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            indice.put(clave, new Entrada(posicion, cuerpo.length, estado, tipo, cabeceras));
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo grabar la respuesta", e);
+        }
+    }
+
+    /**
+     * Carga el índice y mapea datos.bin en memoria una sola vez por JVM
+     */
+    private static void cargarArchivo() {
+        if (mapa != null) {
+            return;
+        }
+        if (!Files.exists(INDICE) || !Files.exists(DATOS)) {
+            throw new IllegalStateException("No hay grabación en " + DIRECTORIO.toAbsolutePath()
+                    + "; ejecute antes con -Dred.modo=grabar");
+        }
+        try {
+            List<String> lineas = Files.readAllLines(INDICE);
+            for (String linea : lineas) {
+                String[] campos = linea.split("\t", -1);
+                // Las grabaciones anteriores a las cabeceras tienen cinco columnas
+                Map<String, List<String>> cabeceras = campos.length > 5
+                        ? new Json().toType(campos[5], CABECERAS) : Map.of();
+                // La última grabación de una misma petición es la que vale
+                indice.put(campos[0], new Entrada(Long.parseLong(campos[1]), Integer.parseInt(campos[2]),
+                        Integer.parseInt(campos[3]), campos[4].isEmpty() ? null : campos[4], cabeceras));
+            }
+            try (RandomAccessFile archivo = new RandomAccessFile(DATOS.toFile(), "r");
+                 FileChannel canal = archivo.getChannel()) {
+                mapa = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+            }
+            System.out.println("Reproduciendo " + indice.size() + " respuestas grabadas desde " + DIRECTORIO);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo cargar la grabación", e);
+        }
+    }
+
+    private static byte[] leer(Entrada entrada) {
+        byte[] cuerpo = new byte[entrada.longitud()];
+        // slice() da una vista independiente, así varios hilos pueden leer del mismo mapa
+        mapa.slice((int) entrada.posicion(), entrada.longitud()).get(cuerpo);
+        return cuerpo;
+    }
+
+    private static void simularRed(int bytes) {
+        long espera = LATENCIA_MS + (KBPS > 0 ? bytes / KBPS : 0);
+        if (espera > 0) {
+            try {
+                Thread.sleep(espera);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
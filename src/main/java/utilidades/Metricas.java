@@ -0,0 +1,155 @@
+package utilidades;
+// Clase Metricas: acumula tiempos de la ejecución (pasos, comandos de WebDriver, pausas, esperas, capturas y reintentos)
+// en histogramas HDR y los exporta como JSON y CSV al terminar
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.openqa.selenium.json.Json;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+public class Metricas {
+
+    // Categorías de tiempo que se registran
+    public static final String PASO = "paso";
+    public static final String COMANDO = "comando";
+    public static final String PAUSA = "pausa";
+    public static final String ESPERA = "espera";
+    public static final String CAPTURA = "captura";
+    public static final String REINTENTO = "reintento";
+
+    // Directorio de salida de metricas.json y metricas.csv (-Dmetricas.dir)
+    private static final Path DIRECTORIO = Paths.get(System.getProperty("metricas.dir", "reports/metricas"));
+    // Dígitos significativos de los histogramas: 3 da un error relativo máximo del 0,1 %
+    private static final int DIGITOS = 3;
+
+    // "categoria/nombre" -> histograma en microsegundos; ordenado para que la exportación sea estable
+    private static final Map<String, Histogram> histogramas = new ConcurrentSkipListMap<>();
+    private static final Map<String, String[]> claves = new ConcurrentHashMap<>();
+
+    /**
+     * Marca de tiempo para pasar después a {@link #registrarDesde(String, String, long)}
+     */
+    public static long inicio() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Registra el tiempo transcurrido desde la marca obtenida con {@link #inicio()}
+     */
+    public static void registrarDesde(String categoria, String nombre, long inicio) {
+        registrar(categoria, nombre, System.nanoTime() - inicio);
+    }
+
+    /**
+     * Registra una duración en nanosegundos; el histograma guarda microsegundos
+     */
+    public static void registrar(String categoria, String nombre, long nanos) {
+        String clave = categoria + "/" + nombre;
+        Histogram histograma = histogramas.get(clave);
+        if (histograma == null) {
+            histograma = histogramas.computeIfAbsent(clave, k -> {
+                claves.put(k, new String[]{categoria, nombre});
+                ConcurrentHistogram nuevo = new ConcurrentHistogram(DIGITOS);
+                nuevo.setAutoResize(true);
+                return nuevo;
+            });
+        }
+        histograma.recordValue(Math.max(0, nanos / 1000));
+    }
+
+    /**
+     * Resumen por categoría y nombre: cantidad, total, media, percentiles y máximo en milisegundos
+     */
+    public static List<Map<String, Object>> resumen() {
+        List<Map<String, Object>> filas = new ArrayList<>();
+        histogramas.forEach((clave, histograma) -> {
+            Histogram copia = histograma.copy(); // Vista consistente aunque otros hilos sigan registrando
+            String[] partes = claves.get(clave);
+            Map<String, Object> fila = new LinkedHashMap<>();
+            fila.put("categoria", partes[0]);
+            fila.put("nombre", partes[1]);
+            fila.put("cantidad", copia.getTotalCount());
+            fila.put("totalMs", ms(copia.getMean() * copia.getTotalCount()));
+            fila.put("mediaMs", ms(copia.getMean()));
+            fila.put("p50Ms", ms(copia.getValueAtPercentile(50)));
+            fila.put("p90Ms", ms(copia.getValueAtPercentile(90)));
+            fila.put("p99Ms", ms(copia.getValueAtPercentile(99)));
+            fila.put("maxMs", ms(copia.getMaxValue()));
+            filas.add(fila);
+        });
+        return filas;
+    }
+
+    /**
+     * Escribe metricas.json y metricas.csv en el directorio configurado
+     *
+     * @return directorio donde quedaron los archivos
+     */
+    public static Path exportar() {
+        List<Map<String, Object>> filas = resumen();
+        try {
+            Files.createDirectories(DIRECTORIO);
+
+            Map<String, Object> json = new LinkedHashMap<>();
+            json.put("generado", Instant.now().toString());
+            json.put("unidad", "ms");
+            json.put("metricas", filas);
+            Files.writeString(DIRECTORIO.resolve("metricas.json"), new Json().toJson(json));
+
+            StringBuilder csv = new StringBuilder("categoria,nombre,cantidad,totalMs,mediaMs,p50Ms,p90Ms,p99Ms,maxMs\n");
+            for (Map<String, Object> fila : filas) {
+                List<String> valores = new ArrayList<>();
+                fila.values().forEach(v -> valores.add(v instanceof String ? csv((String) v) : String.valueOf(v)));
+                csv.append(String.join(",", valores)).append('\n');
+            }
+            Files.writeString(DIRECTORIO.resolve("metricas.csv"), csv);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudieron exportar las métricas", e);
+        }
+        return DIRECTORIO;
+    }
+
+    /**
+     * Tabla de texto con el resumen, ordenada por tiempo total dentro de cada categoría
+     */
+    public static String tabla() {
+        List<Map<String, Object>> filas = resumen();
+        filas.sort((a, b) -> {
+            int categoria = ((String) a.get("categoria")).compareTo((String) b.get("categoria"));
+            return categoria != 0 ? categoria : Double.compare((Double) b.get("totalMs"), (Double) a.get("totalMs"));
+        });
+        StringBuilder tabla = new StringBuilder(String.format(Locale.ROOT, "%-9s %-40s %8s %11s %9s %9s %9s %9s%n",
+                "categoria", "nombre", "cantidad", "total ms", "p50 ms", "p90 ms", "p99 ms", "max ms"));
+        for (Map<String, Object> fila : filas) {
+            tabla.append(String.format(Locale.ROOT, "%-9s %-40s %8d %11.1f %9.1f %9.1f %9.1f %9.1f%n",
+                    fila.get("categoria"), recortar((String) fila.get("nombre"), 40), fila.get("cantidad"),
+                    fila.get("totalMs"), fila.get("p50Ms"), fila.get("p90Ms"), fila.get("p99Ms"), fila.get("maxMs")));
+        }
+        return tabla.toString();
+    }
+
+    private static double ms(double micros) {
+        return Math.round(micros / 10.0) / 100.0;
+    }
+
+    private static String recortar(String texto, int maximo) {
+        return texto.length() <= maximo ? texto : texto.substring(0, maximo - 1) + "…";
+    }
+
+    private static String csv(String texto) {
+        return texto.contains(",") || texto.contains("\"") ? "\"" + texto.replace("\"", "\"\"") + "\"" : texto;
+    }
+}
@@ -0,0 +1,187 @@
+package utilidades;
+// Clase NodosGrid: crea sesiones RemoteWebDriver repartidas entre uno o varios Selenium Grid (-Dgrid.urls).
+// Antes de cada sesión consulta /status de cada Grid y elige el que tiene más slots libres para el navegador;
+// un Grid que no responde o no puede crear la sesión se aparta durante un tiempo y se prueba con el siguiente
+
+import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.SessionNotCreatedException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.remote.Augmenter;
+import org.openqa.selenium.remote.RemoteWebDriver;
+import org.openqa.selenium.remote.SessionId;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class NodosGrid {
+
+    // Segundos que un Grid caído queda apartado antes de volver a consultarlo (-Dgrid.penalizacionSeg)
+    private static final long PENALIZACION_SEG = Long.getLong("grid.penalizacionSeg", 60L);
+    // Segundos que se espera a que algún Grid tenga un slot libre antes de encolar la sesión igualmente (-Dgrid.esperaSlotSeg)
+    private static final long ESPERA_SLOT_SEG = Long.getLong("grid.esperaSlotSeg", 60L);
+    // Intervalo entre consultas de /status mientras todos los slots están ocupados
+    private static final Duration INTERVALO_SONDEO = Duration.ofSeconds(1);
+
+    private static final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+
+    private static volatile List<String> grids; // URLs configuradas, leídas en el primer uso
+    private static final Map<String, Long> apartadosHasta = new ConcurrentHashMap<>(); // Grid -> nanoTime de vuelta
+    private static final Map<SessionId, String> gridDeSesion = new ConcurrentHashMap<>();
+
+    /**
+     * Indica si hay algún Grid configurado. La lista se lee en el primer uso para que un Grid local
+     * arrancado al empezar la ejecución pueda fijar -Dgrid.urls antes
+     */
+    public static boolean activo() {
+        return !grids().isEmpty();
+    }
+
+    private static List<String> grids() {
+        if (grids == null) {
+            grids = Arrays.stream(System.getProperty("grid.urls", "").split(","))
+                    .map(String::trim)
+                    .filter(url -> !url.isEmpty())
+                    .map(url -> url.endsWith("/") ? url.substring(0, url.length() - 1) : url)
+                    .toList();
+        }
+        return grids;
+    }
+
+    /**
+     * Crea una sesión en el Grid con más capacidad libre; si falla, lo aparta y prueba con los demás
+     */
+    static WebDriver crearSesion(Capabilities opciones) {
+        WebDriverException ultimoError = null;
+        for (int intento = 0; intento < grids().size(); intento++) {
+            String grid = elegir(opciones.getBrowserName());
+            if (grid == null) {
+                break;
+            }
+            try {
+                RemoteWebDriver remoto = new RemoteWebDriver(URI.create(grid).toURL(), opciones);
+                gridDeSesion.put(remoto.getSessionId(), grid);
+                System.out.println("Sesión " + remoto.getSessionId() + " creada en " + grid);
+                // El Augmenter añade DevTools a las sesiones de Chrome y Edge (interceptor de red, CDP)
+                return new Augmenter().augment(remoto);
+            } catch (IOException | WebDriverException e) {
+                System.out.println("El Grid " + grid + " no pudo crear la sesión, se prueba con otro: " + e.getMessage());
+                apartar(grid);
+                ultimoError = e instanceof WebDriverException ? (WebDriverException) e : new WebDriverException(e);
+            }
+        }
+        throw new SessionNotCreatedException("Ningún Grid de " + grids() + " pudo crear la sesión", ultimoError);
+    }
+
+    /**
+     * Anota que una sesión dejó de responder: su Grid se aparta hasta que /status vuelva a confirmarlo
+     */
+    static void sesionPerdida(WebDriver driver) {
+        if (driver instanceof RemoteWebDriver) {
+            String grid = gridDeSesion.remove(((RemoteWebDriver) driver).getSessionId());
+            if (grid != null) {
+                apartar(grid);
+            }
+        }
+    }
+
+    /**
+     * Grid disponible con más slots libres para el navegador. Si todos están llenos espera a que se libere alguno
+     * y, pasado el límite, devuelve el primero que responda para que la sesión quede en su cola
+     */
+    private static String elegir(String navegador) {
+        long limite = System.nanoTime() + Duration.ofSeconds(ESPERA_SLOT_SEG).toNanos();
+        while (true) {
+            String mejor = null;
+            String primeroQueResponde = null;
+            int maximoLibres = 0;
+            for (String grid : disponibles()) {
+                int libres = slotsLibres(grid, navegador);
+                if (libres < 0) {
+                    continue;
+                }
+                if (primeroQueResponde == null) {
+                    primeroQueResponde = grid;
+                }
+                if (libres > maximoLibres) {
+                    maximoLibres = libres;
+                    mejor = grid;
+                }
+            }
+            if (mejor != null || primeroQueResponde == null || System.nanoTime() > limite) {
+                return mejor != null ? mejor : primeroQueResponde;
+            }
+            try {
+                Thread.sleep(INTERVALO_SONDEO.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return primeroQueResponde;
+            }
+        }
+    }
+
+    private static List<String> disponibles() {
+        List<String> disponibles = new ArrayList<>();
+        long ahora = System.nanoTime();
+        for (String grid : grids()) {
+            Long hasta = apartadosHasta.get(grid);
+            if (hasta == null || hasta - ahora <= 0) {
+                disponibles.add(grid);
+            }
+        }
+        return disponibles;
+    }
+
+    private static void apartar(String grid) {
+        apartadosHasta.put(grid, System.nanoTime() + Duration.ofSeconds(PENALIZACION_SEG).toNanos());
+    }
+
+    /**
+     * Slots libres del Grid para el navegador según /status, o -1 si el Grid no responde
+     */
+    @SuppressWarnings("unchecked")
+    private static int slotsLibres(String grid, String navegador) {
+        try {
+            HttpResponse<String> respuesta = http.send(HttpRequest.newBuilder(URI.create(grid + "/status"))
+                    .timeout(Duration.ofSeconds(5)).GET().build(), HttpResponse.BodyHandlers.ofString());
+            Map<String, Object> cuerpo = new Json().toType(respuesta.body(), Json.MAP_TYPE);
+            Map<String, Object> estado = (Map<String, Object>) cuerpo.get("value");
+            // "ready" también es false cuando todos los slots están ocupados; eso no es un Grid caído
+            if (respuesta.statusCode() != 200 || estado == null) {
+                apartar(grid);
+                return -1;
+            }
+            int libres = 0;
+            for (Map<String, Object> nodo : (List<Map<String, Object>>) estado.getOrDefault("nodes", List.of())) {
+                if (!"UP".equals(nodo.get("availability"))) {
+                    continue;
+                }
+                for (Map<String, Object> slot : (List<Map<String, Object>>) nodo.getOrDefault("slots", List.of())) {
+                    Map<String, Object> estereotipo = (Map<String, Object>) slot.get("stereotype");
+                    if (slot.get("session") == null && estereotipo != null
+                            && navegador.equalsIgnoreCase(String.valueOf(estereotipo.get("browserName")))) {
+                        libres++;
+                    }
+                }
+            }
+            return libres;
+        } catch (IOException | RuntimeException e) {
+            System.out.println("El Grid " + grid + " no responde, se aparta " + PENALIZACION_SEG + " s: " + e.getMessage());
+            apartar(grid);
+            return -1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        }
+    }
+}
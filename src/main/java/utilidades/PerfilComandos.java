@@ -0,0 +1,160 @@
+package utilidades;
+// Clase PerfilComandos: cuenta y cronometra los comandos de WebDriver de un escenario y marca las búsquedas
+// redundantes (el mismo localizador buscado otra vez sin que la página haya cambiado entre medias)
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+public class PerfilComandos {
+
+    // Perfil del escenario que se ejecuta en el hilo actual
+    private static final ThreadLocal<PerfilComandos> actual = new ThreadLocal<>();
+    // Perfiles de los escenarios ya terminados, para exportarlos al final
+    private static final Queue<PerfilComandos> terminados = new ConcurrentLinkedQueue<>();
+
+    // Comandos que pueden cambiar la página: después de ellos una búsqueda repetida ya no es redundante
+    private static final Set<String> CAMBIAN_PAGINA = Set.of("get", "to", "back", "forward", "refresh", "click",
+            "submit", "sendKeys", "clear", "executeScript", "executeAsyncScript", "window", "frame",
+            "defaultContent", "parentFrame", "newWindow", "close");
+
+    private final String escenario;
+    private final Map<String, long[]> comandos = new TreeMap<>(); // Comando -> {cantidad, nanos}
+    private final Map<String, Integer> redundantes = new TreeMap<>(); // Localizador -> búsquedas repetidas
+    private final Set<String> buscados = new HashSet<>(); // Búsquedas hechas desde el último cambio de página
+    private int esperasAbiertas; // Dentro de una espera las búsquedas repetidas son el sondeo, no redundancia
+
+    private PerfilComandos(String escenario) {
+        this.escenario = escenario;
+    }
+
+    /**
+     * Empieza a perfilar los comandos del hilo actual para el escenario indicado
+     */
+    public static void iniciar(String escenario) {
+        actual.set(new PerfilComandos(escenario));
+    }
+
+    /**
+     * Deja de perfilar el hilo actual y devuelve el perfil, o null si no se había iniciado
+     */
+    public static PerfilComandos terminar() {
+        PerfilComandos perfil = actual.get();
+        actual.remove();
+        if (perfil != null) {
+            terminados.add(perfil);
+        }
+        return perfil;
+    }
+
+    /**
+     * Deja de perfilar el hilo actual sin guardar el perfil, para escenarios que no llegaron a ejecutarse
+     */
+    public static void descartar() {
+        actual.remove();
+    }
+
+    static void registrar(String comando, String metodo, long nanos) {
+        PerfilComandos perfil = actual.get();
+        if (perfil == null) {
+            return;
+        }
+        long[] datos = perfil.comandos.computeIfAbsent(comando, k -> new long[2]);
+        datos[0]++;
+        datos[1] += nanos;
+        if (CAMBIAN_PAGINA.contains(metodo)) {
+            perfil.buscados.clear();
+        }
+    }
+
+    /**
+     * Registra una búsqueda de localizador en un contexto (el navegador o un elemento concreto)
+     */
+    static void busqueda(String contexto, String localizador) {
+        PerfilComandos perfil = actual.get();
+        if (perfil == null || perfil.esperasAbiertas > 0) {
+            return;
+        }
+        if (!perfil.buscados.add(contexto + " " + localizador)) {
+            perfil.redundantes.merge(localizador, 1, Integer::sum);
+        }
+    }
+
+    static void entrarEspera() {
+        PerfilComandos perfil = actual.get();
+        if (perfil != null) {
+            perfil.esperasAbiertas++;
+        }
+    }
+
+    static void salirEspera() {
+        PerfilComandos perfil = actual.get();
+        if (perfil != null && perfil.esperasAbiertas > 0) {
+            perfil.esperasAbiertas--;
+        }
+    }
+
+    public String getEscenario() {
+        return escenario;
+    }
+
+    public long getTotalComandos() {
+        return comandos.values().stream().mapToLong(d -> d[0]).sum();
+    }
+
+    public int getTotalRedundantes() {
+        return redundantes.values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    /**
+     * Texto con los comandos del escenario (de más a menos tiempo) y las búsquedas redundantes
+     */
+    public String resumen() {
+        StringBuilder texto = new StringBuilder(String.format(Locale.ROOT,
+                "%d comandos en %.1f ms, %d búsquedas redundantes%n", getTotalComandos(),
+                comandos.values().stream().mapToLong(d -> d[1]).sum() / 1e6, getTotalRedundantes()));
+        comandos.entrySet().stream()
+                .sorted((a, b) -> Long.compare(b.getValue()[1], a.getValue()[1]))
+                .forEach(e -> texto.append(String.format(Locale.ROOT, "  %-32s %5d  %9.1f ms%n",
+                        e.getKey(), e.getValue()[0], e.getValue()[1] / 1e6)));
+        redundantes.forEach((localizador, veces) -> texto.append("  redundante x").append(veces)
+                .append(": ").append(localizador).append(System.lineSeparator()));
+        return texto.toString();
+    }
+
+    /**
+     * Escribe un CSV con una fila por escenario y comando, y otra por cada localizador redundante
+     */
+    public static void exportar(Path archivo) {
+        StringBuilder csv = new StringBuilder("escenario,tipo,nombre,cantidad,totalMs\n");
+        for (PerfilComandos perfil : List.copyOf(terminados)) {
+            perfil.comandos.forEach((comando, datos) -> csv.append(fila(perfil.escenario, "comando", comando,
+                    datos[0], String.format(Locale.ROOT, "%.2f", datos[1] / 1e6))));
+            perfil.redundantes.forEach((localizador, veces) -> csv.append(fila(perfil.escenario, "redundante",
+                    localizador, veces, "")));
+        }
+        try {
+            Files.createDirectories(archivo.toAbsolutePath().getParent());
+            Files.writeString(archivo, csv);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo exportar el perfil de comandos", e);
+        }
+    }
+
+    private static String fila(String escenario, String tipo, String nombre, long cantidad, String totalMs) {
+        return String.join(",", csv(escenario), tipo, csv(nombre), String.valueOf(cantidad), totalMs) + "\n";
+    }
+
+    private static String csv(String texto) {
+        return "\"" + texto.replace("\"", "\"\"") + "\"";
+    }
+}
@@ -0,0 +1,67 @@
+package utilidades;
+// Enum PerfilNavegador: perfiles de rendimiento del navegador, seleccionados con -Dperfil
+
+public enum PerfilNavegador {
+    // Navegador visible y maximizado, igual que la configuración original salvo el vídeo, que ningún paso usa
+    ESTANDAR("estandar", false, true, true, false, "media"),
+    // Agentes de CI: sin interfaz, ventana fija, sin imágenes ni GPU y sin ralentizar pestañas en segundo plano
+    CI_FAST("ci-fast", true, false, false, true, "imagen,media,fuente");
+
+    // Tamaño de ventana fijo para los perfiles que no maximizan
+    public static final int ANCHO_VENTANA = 1366;
+    public static final int ALTO_VENTANA = 768;
+
+    private final String nombre;
+    private final boolean headless; // Sin ventana visible
+    private final boolean maximizar; // Maximizar la ventana en lugar de usar el tamaño fijo
+    private final boolean cargarImagenes; // Descargar y pintar imágenes
+    private final boolean recortarRecursos; // Sin GPU, sin throttling en segundo plano y memoria compartida en /tmp
+    private final String recursosBloqueados; // Tipos de recurso que FiltroRecursos no deja descargar
+
+    PerfilNavegador(String nombre, boolean headless, boolean maximizar, boolean cargarImagenes, boolean recortarRecursos,
+                    String recursosBloqueados) {
+        this.nombre = nombre;
+        this.headless = headless;
+        this.maximizar = maximizar;
+        this.cargarImagenes = cargarImagenes;
+        this.recortarRecursos = recortarRecursos;
+        this.recursosBloqueados = recursosBloqueados;
+    }
+
+    /**
+     * Perfil configurado con -Dperfil; por defecto estandar
+     */
+    public static PerfilNavegador actual() {
+        String valor = System.getProperty("perfil", ESTANDAR.nombre);
+        for (PerfilNavegador perfil : values()) {
+            if (perfil.nombre.equalsIgnoreCase(valor)) {
+                return perfil;
+            }
+        }
+        throw new IllegalArgumentException("Perfil de navegador desconocido: " + valor);
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public boolean isHeadless() {
+        return headless;
+    }
+
+    public boolean isMaximizar() {
+        return maximizar;
+    }
+
+    public boolean isCargarImagenes() {
+        return cargarImagenes;
+    }
+
+    public boolean isRecortarRecursos() {
+        return recortarRecursos;
+    }
+
+    public String getRecursosBloqueados() {
+        return recursosBloqueados;
+    }
+}
@@ -0,0 +1,182 @@
+package utilidades;
+// Clase ResolutorDrivers: resuelve el binario del driver de cada navegador una sola vez
+// (por JVM y, mediante una caché en disco, por máquina) para no consultar WebDriverManager en cada sesión
+
+import io.github.bonigarcia.wdm.WebDriverManager;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+class ResolutorDrivers {
+
+    // Caché compartida por todas las ejecuciones de la máquina (-Ddrivers.cache para cambiarla)
+    private static final Path CACHE = Paths.get(System.getProperty("drivers.cache",
+            Paths.get(System.getProperty("user.home"), ".cache", "amazonproyecto", "drivers.properties").toString()));
+    // Modo sin red (-Ddrivers.offline=true): solo rutas fijas (-Ddrivers.ruta.<navegador>) o la caché en disco
+    private static final boolean OFFLINE = Boolean.getBoolean("drivers.offline");
+
+    // Navegador -> ruta del driver ya resuelta en esta JVM
+    private static final Map<String, String> resueltos = new ConcurrentHashMap<>();
+    // Un cerrojo por navegador: los hilos que piden el mismo driver esperan a una sola resolución,
+    // y la descarga no ocurre dentro de computeIfAbsent, que bloquearía el mapa para otros navegadores
+    private static final Map<String, Object> cerrojos = new ConcurrentHashMap<>();
+
+    /**
+     * Deja configurada la propiedad webdriver.*.driver del navegador; solo la primera llamada hace trabajo
+     */
+    static void resolver(String navegador) {
+        String ruta = resueltos.get(navegador);
+        if (ruta == null) {
+            synchronized (cerrojos.computeIfAbsent(navegador, clave -> new Object())) {
+                ruta = resueltos.get(navegador);
+                if (ruta == null) {
+                    ruta = buscarRuta(navegador);
+                    resueltos.put(navegador, ruta);
+                }
+            }
+        }
+        System.setProperty(propiedadSelenium(navegador), ruta);
+    }
+
+    /**
+     * Registra la versión del navegador con la que arrancó la sesión. Si cambió respecto a la caché
+     * (el navegador se actualizó), se invalida la entrada para que la próxima ejecución vuelva a resolver.
+     */
+    static synchronized void registrarVersion(String navegador, String versionNavegador) {
+        if (versionNavegador == null || versionNavegador.isEmpty() || rutaFija(navegador) != null) {
+            return;
+        }
+        String mayor = versionNavegador.split("\\.")[0];
+        Properties cache = leerCache();
+        String guardada = cache.getProperty(navegador + ".version", "");
+        if (guardada.isEmpty() && cache.getProperty(navegador + ".ruta") != null) {
+            cache.setProperty(navegador + ".version", mayor);
+            escribirCache(cache);
+        } else if (!guardada.isEmpty() && !guardada.equals(mayor)) {
+            System.out.println("El navegador " + navegador + " cambió de versión (" + guardada + " -> " + mayor + "), se invalida la caché de drivers");
+            cache.remove(navegador + ".ruta");
+            cache.remove(navegador + ".version");
+            escribirCache(cache);
+        }
+    }
+
+    /**
+     * Descarta la ruta cacheada cuando el driver no pudo crear la sesión.
+     *
+     * @return true si había una ruta de caché que se descartó y vale la pena reintentar
+     */
+    static synchronized boolean invalidar(String navegador) {
+        if (OFFLINE || rutaFija(navegador) != null) {
+            return false;
+        }
+        Properties cache = leerCache();
+        if (cache.remove(navegador + ".ruta") == null) {
+            return false;
+        }
+        cache.remove(navegador + ".version");
+        escribirCache(cache);
+        resueltos.remove(navegador);
+        return true;
+    }
+
+    private static String buscarRuta(String navegador) {
+        // 1. Ruta fija configurada: nunca se toca la red
+        String fija = rutaFija(navegador);
+        if (fija != null) {
+            if (!Files.isExecutable(Paths.get(fija))) {
+                throw new IllegalStateException("El driver configurado en drivers.ruta." + navegador + " no existe: " + fija);
+            }
+            return fija;
+        }
+
+        // 2. Caché en disco de una ejecución anterior
+        synchronized (ResolutorDrivers.class) {
+            String cacheada = leerCache().getProperty(navegador + ".ruta");
+            if (cacheada != null && Files.isExecutable(Paths.get(cacheada))) {
+                return cacheada;
+            }
+        }
+
+        if (OFFLINE) {
+            throw new IllegalStateException("Modo offline sin driver para " + navegador
+                    + ": configure -Ddrivers.ruta." + navegador + "=<ruta al binario>");
+        }
+
+        // 3. Resolución completa con WebDriverManager, una sola vez
+        WebDriverManager wdm = gestor(navegador);
+        wdm.setup();
+        String ruta = wdm.getDownloadedDriverPath();
+        if (ruta == null) {
+            throw new IllegalStateException("WebDriverManager no devolvió la ruta del driver de " + navegador);
+        }
+        synchronized (ResolutorDrivers.class) {
+            Properties cache = leerCache();
+            cache.setProperty(navegador + ".ruta", ruta);
+            cache.remove(navegador + ".version"); // Se completa al arrancar la primera sesión
+            escribirCache(cache);
+        }
+        return ruta;
+    }
+
+    private static String rutaFija(String navegador) {
+        return System.getProperty("drivers.ruta." + navegador);
+    }
+
+    private static WebDriverManager gestor(String navegador) {
+        switch (navegador) {
+            case "firefox":
+                return WebDriverManager.firefoxdriver();
+            case "edge":
+                return WebDriverManager.edgedriver();
+            default:
+                return WebDriverManager.chromedriver();
+        }
+    }
+
+    private static String propiedadSelenium(String navegador) {
+        switch (navegador) {
+            case "firefox":
+                return "webdriver.gecko.driver";
+            case "edge":
+                return "webdriver.edge.driver";
+            default:
+                return "webdriver.chrome.driver";
+        }
+    }
+
+    private static Properties leerCache() {
+        Properties cache = new Properties();
+        if (Files.exists(CACHE)) {
+            try (InputStream entrada = Files.newInputStream(CACHE)) {
+                cache.load(entrada);
+            } catch (IOException e) {
+                System.out.println("No se pudo leer la caché de drivers: " + e.getMessage());
+            }
+        }
+        return cache;
+    }
+
+    private static void escribirCache(Properties cache) {
+        try {
+            Path directorio = CACHE.toAbsolutePath().getParent();
+            Files.createDirectories(directorio);
+            // La caché la comparten todas las ejecuciones de la máquina: se escribe aparte y se mueve para que
+            // otra JVM nunca lea un archivo a medias
+            Path temporal = Files.createTempFile(directorio, "drivers", ".properties");
+            try (OutputStream salida = Files.newOutputStream(temporal)) {
+                cache.store(salida, "Rutas de drivers resueltas por AmazonProyecto");
+            }
+            Files.move(temporal, CACHE, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.out.println("No se pudo escribir la caché de drivers: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package utilidades;
+// Clase SesionNavegador: envuelve un navegador del pool de Driver junto con su espera y su contador de usos
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.chromium.ChromiumDriver;
+import org.openqa.selenium.support.ui.WebDriverWait;
+
+import java.util.Map;
+
+class SesionNavegador {
+
+    private final WebDriver driver; // Navegador real asociado a la sesión
+    private final WebDriver decorado; // Navegador que reciben los escenarios, con sus comandos medidos
+    private final WebDriverWait wait; // Espera explícita creada una sola vez para la sesión
+    private final String ventanaPrincipal; // Pestaña que se conserva al reiniciar la sesión
+    private int usos; // Número de escenarios que ya utilizaron esta sesión
+    private AutoCloseable interceptor; // Interceptor de red instalado en el navegador, si hay alguno
+    private boolean almacenamientoSembrado; // El localStorage guardado ya se siembra en cada documento nuevo
+
+    SesionNavegador(WebDriver driver, WebDriver decorado, WebDriverWait wait) {
+        this.driver = driver;
+        this.decorado = decorado;
+        this.wait = wait;
+        this.ventanaPrincipal = driver.getWindowHandle();
+    }
+
+    /**
+     * Navegador para los escenarios; la limpieza del pool usa el real para no mezclar sus comandos con las métricas
+     */
+    WebDriver getDriver() {
+        return decorado;
+    }
+
+    WebDriverWait getWait() {
+        return wait;
+    }
+
+    int getUsos() {
+        return usos;
+    }
+
+    void registrarUso() {
+        usos++;
+    }
+
+    void setInterceptor(AutoCloseable interceptor) {
+        this.interceptor = interceptor;
+    }
+
+    /**
+     * Verifica que el navegador siga respondiendo antes de entregarlo a un escenario
+     */
+    boolean estaSana() {
+        try {
+            driver.getWindowHandle();
+            ((JavascriptExecutor) driver).executeScript("return document.readyState");
+            return true;
+        } catch (WebDriverException e) {
+            // Si la sesión era remota, el nodo del Grid puede haber caído: se deja de elegir un tiempo
+            NodosGrid.sesionPerdida(driver);
+            return false;
+        }
+    }
+
+    /**
+     * Deja el navegador limpio para el siguiente escenario: sin pestañas extra, sin cookies ni almacenamiento
+     * salvo el estado guardado por EstadoSesion, y en about:blank
+     */
+    void reiniciar() {
+        // Cerrar las pestañas abiertas durante el escenario y volver a la principal
+        String conservar = driver.getWindowHandles().contains(ventanaPrincipal)
+                ? ventanaPrincipal
+                : driver.getWindowHandles().iterator().next();
+        for (String handle : driver.getWindowHandles()) {
+            if (!handle.equals(conservar)) {
+                driver.switchTo().window(handle);
+                driver.close();
+            }
+        }
+        driver.switchTo().window(conservar);
+
+        // El almacenamiento solo es accesible desde el origen actual, por eso se limpia antes de salir de la página
+        ((JavascriptExecutor) driver).executeScript(
+                "try { window.localStorage.clear(); window.sessionStorage.clear(); } catch (e) {}");
+
+        driver.manage().deleteAllCookies();
+        if (driver instanceof ChromiumDriver) {
+            // deleteAllCookies solo borra las del dominio actual; CDP limpia las de todos los dominios
+            ((ChromiumDriver) driver).executeCdpCommand("Network.clearBrowserCookies", Map.of());
+        }
+
+        driver.get("about:blank");
+        restaurarEstado();
+    }
+
+    /**
+     * Carga las cookies y el localStorage del estado guardado, si lo hay, antes de la primera navegación
+     */
+    void restaurarEstado() {
+        if (EstadoSesion.restaurar(driver, !almacenamientoSembrado)) {
+            almacenamientoSembrado = true;
+        }
+    }
+
+    /**
+     * Cierra el navegador ignorando errores si ya no responde
+     */
+    void cerrar() {
+        if (interceptor != null) {
+            try {
+                interceptor.close();
+            } catch (Exception e) {
+                System.out.println("No se pudo cerrar el interceptor de red: " + e.getMessage());
+            }
+        }
+        try {
+            driver.quit();
+        } catch (WebDriverException e) {
+            System.out.println("No se pudo cerrar el navegador: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package utilidades;
+// Clase VigilanteDialogos: script que observa el DOM (MutationObserver) y cierra los banners de cookies en cuanto
+// aparecen, y anota las ventanas emergentes abiertas para que la página las cierre con un solo comando
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.chromium.ChromiumDriver;
+import org.openqa.selenium.json.Json;
+
+import java.util.List;
+import java.util.Map;
+
+public class VigilanteDialogos {
+
+    // Diálogos que el vigilante cierra solo, en cuanto aparecen (-Ddialogos.cerrarSolos)
+    private static final String CERRAR_SOLOS = System.getProperty("dialogos.cerrarSolos", "#sp-cc");
+    // Diálogos que solo se anotan y se cierran al llamar a revisar (-Ddialogos.selectores)
+    private static final String SELECTORES = System.getProperty("dialogos.selectores", ".a-popover-visible, .a-modal-active");
+    // Botones de cierre o aceptación dentro de los diálogos (-Ddialogos.botones)
+    private static final String BOTONES = System.getProperty("dialogos.botones",
+            "#sp-cc-accept, .a-button-close, [data-action='a-popover-close']");
+
+    // Se instala una sola vez por documento; las mutaciones se agrupan para revisar como mucho cada 50 ms
+    private static final String SCRIPT_INSTALAR = String.format(
+            "(function (auto, anotados, botones) {"
+            + "  if (window.__vigilanteDialogos) { return; }"
+            + "  var v = window.__vigilanteDialogos = {cerrados: 0, informados: 0, pendientes: 0};"
+            + "  function todos(s) { return s ? document.querySelectorAll(s) : []; }"
+            + "  function visible(e) { var r = e.getBoundingClientRect();"
+            + "    return r.width > 0 && r.height > 0 && getComputedStyle(e).visibility !== 'hidden'; }"
+            + "  function cerrar(d) { var b = botones ? d.querySelector(botones) : null;"
+            + "    if (b && visible(b)) { b.click(); v.cerrados++; return true; } return false; }"
+            + "  v.revisar = function (cerrarAnotados) {"
+            + "    var pendientes = 0;"
+            + "    todos(auto).forEach(function (d) { if (visible(d) && !cerrar(d)) { pendientes++; } });"
+            + "    todos(anotados).forEach(function (d) { if (visible(d) && !(cerrarAnotados && cerrar(d))) { pendientes++; } });"
+            + "    v.pendientes = pendientes;"
+            + "  };"
+            + "  var programado = false;"
+            + "  new MutationObserver(function () {"
+            + "    if (programado) { return; }"
+            + "    programado = true;"
+            + "    setTimeout(function () { programado = false; v.revisar(false); }, 50);"
+            + "  }).observe(document, {childList: true, subtree: true, attributes: true, attributeFilter: ['class', 'style']});"
+            + "})(%s, %s, %s);",
+            json(CERRAR_SOLOS), json(SELECTORES), json(BOTONES));
+
+    // Instala el vigilante si la página aún no lo tiene, cierra lo anotado y devuelve el estado
+    private static final String SCRIPT_REVISAR = SCRIPT_INSTALAR
+            + "var v = window.__vigilanteDialogos;"
+            + "v.revisar(true);"
+            + "var cerrados = v.cerrados - v.informados;"
+            + "v.informados = v.cerrados;"
+            + "return [cerrados, v.pendientes];";
+
+    /**
+     * Diálogos cerrados desde la revisión anterior y diálogos visibles que no tenían botón para cerrarlos
+     */
+    public record Estado(long cerrados, long pendientes) {
+    }
+
+    /**
+     * En Chrome y Edge registra el vigilante para que se ejecute en cada documento nuevo antes que los scripts
+     * de la página. En otros navegadores se instala de forma perezosa en la primera llamada a {@link #revisar}.
+     */
+    static void instalar(WebDriver driver) {
+        if (!(driver instanceof ChromiumDriver)) {
+            return;
+        }
+        try {
+            ((ChromiumDriver) driver).executeCdpCommand("Page.addScriptToEvaluateOnNewDocument",
+                    Map.of("source", SCRIPT_INSTALAR));
+        } catch (WebDriverException e) {
+            System.out.println("No se pudo instalar el vigilante de diálogos, se instalará en cada página: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Un solo comando: instala el vigilante si falta, cierra los diálogos anotados y devuelve el estado
+     */
+    public static Estado revisar(WebDriver driver) {
+        Object respuesta = ((JavascriptExecutor) driver).executeScript(SCRIPT_REVISAR);
+        if (!(respuesta instanceof List<?> valores) || valores.size() < 2) {
+            return new Estado(0, 0);
+        }
+        return new Estado(((Number) valores.get(0)).longValue(), ((Number) valores.get(1)).longValue());
+    }
+
+    private static String json(String texto) {
+        return new Json().toJson(texto);
+    }
+}
@@ -0,0 +1,122 @@
+package pages;
+// Clase ExtractorResultados: lee todos los resultados de búsqueda con un único executeScript
+// en lugar de varios comandos de WebDriver por cada resultado
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class ExtractorResultados {
+
+    // Devuelve un objeto plano por resultado; Selenium lo convierte en List<Map<String, Object>>
+    private static final String SCRIPT_EXTRAER =
+            "var items = Array.prototype.slice.call(document.querySelectorAll(arguments[0]), 0, arguments[1]);"
+            + "return items.map(function (item, i) {"
+            + "  var titulo = item.querySelector('h2, .a-text-normal');"
+            + "  var enlace = item.querySelector('h2 a, a.a-link-normal') || item.querySelector('a');"
+            + "  var r = item.getBoundingClientRect();"
+            + "  var estilo = window.getComputedStyle(item);"
+            + "  return {"
+            + "    indice: i,"
+            + "    titulo: titulo ? titulo.innerText.trim() : (item.getAttribute('aria-label') || 'No disponible'),"
+            + "    enlace: enlace ? enlace.href : null,"
+            + "    visible: r.width > 0 && r.height > 0 && estilo.visibility !== 'hidden' && estilo.display !== 'none',"
+            + "    patrocinado: item.classList.contains('AdHolder')"
+            + "        || !!item.querySelector('.puis-sponsored-label-text, .s-sponsored-label-text, .s-sponsored-label-info-icon'),"
+            + "    conTitulo: !!titulo,"
+            + "    asin: item.getAttribute('data-asin') || null,"
+            + "    precio: (function (p) { return p ? p.textContent : null; })(item.querySelector('.a-price .a-offscreen')),"
+            + "    calificacion: (function (c) { return c ? c.textContent : null; })(item.querySelector('.a-icon-alt'))"
+            + "  };"
+            + "});";
+
+    // Desplaza el resultado indicado al centro, lo resalta y devuelve su enlace principal
+    private static final String SCRIPT_PREPARAR_ENLACE =
+            "var item = document.querySelectorAll(arguments[0])[arguments[1]];"
+            + "if (!item) { return null; }"
+            + "item.scrollIntoView({block: 'center'});"
+            + "item.style.border = '3px solid red';"
+            + "return item.querySelector('h2 a, a.a-link-normal') || item.querySelector('a');";
+
+    /**
+     * Extrae hasta maximo resultados que coinciden con el selector CSS, en orden del documento
+     */
+    public static List<ResultadoBusqueda> extraer(WebDriver driver, String selector, int maximo) {
+        return extraer(driver, selector, maximo, 1);
+    }
+
+    /**
+     * Igual que {@link #extraer(WebDriver, String, int)}, indicando el número de página de resultados
+     */
+    public static List<ResultadoBusqueda> extraer(WebDriver driver, String selector, int maximo, int pagina) {
+        Object respuesta = ((JavascriptExecutor) driver).executeScript(SCRIPT_EXTRAER, selector, maximo);
+        List<ResultadoBusqueda> resultados = new ArrayList<>();
+        if (respuesta instanceof List<?>) {
+            for (Object fila : (List<?>) respuesta) {
+                resultados.add(convertir((Map<?, ?>) fila, pagina));
+            }
+        }
+        return List.copyOf(resultados);
+    }
+
+    /**
+     * Prepara el resultado para hacer clic y devuelve su enlace, o null si ya no existe
+     */
+    public static WebElement prepararEnlace(WebDriver driver, String selector, int indice) {
+        return (WebElement) ((JavascriptExecutor) driver).executeScript(SCRIPT_PREPARAR_ENLACE, selector, indice);
+    }
+
+    private static ResultadoBusqueda convertir(Map<?, ?> fila, int pagina) {
+        return new ResultadoBusqueda(
+                pagina,
+                ((Number) fila.get("indice")).intValue(),
+                (String) fila.get("asin"),
+                (String) fila.get("titulo"),
+                (String) fila.get("enlace"),
+                parsearPrecio((String) fila.get("precio")),
+                parsearCalificacion((String) fila.get("calificacion")),
+                Boolean.TRUE.equals(fila.get("visible")),
+                Boolean.TRUE.equals(fila.get("patrocinado")),
+                Boolean.TRUE.equals(fila.get("conTitulo")));
+    }
+
+    /**
+     * Convierte textos como "$1,234.56" o "1.234,56 €" en número; null si no hay precio
+     */
+    static Double parsearPrecio(String texto) {
+        if (texto == null) {
+            return null;
+        }
+        String numero = texto.replaceAll("[^0-9.,]", "");
+        if (numero.isEmpty()) {
+            return null;
+        }
+        // El último separador es el decimal; los anteriores son de miles
+        int ultimo = Math.max(numero.lastIndexOf('.'), numero.lastIndexOf(','));
+        if (ultimo >= 0 && numero.length() - ultimo - 1 != 3) {
+            numero = numero.substring(0, ultimo).replaceAll("[.,]", "") + "." + numero.substring(ultimo + 1);
+        } else {
+            numero = numero.replaceAll("[.,]", "");
+        }
+        try {
+            return Double.valueOf(numero);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Extrae las estrellas de textos como "4.5 out of 5 stars" o "4,5 de 5 estrellas"
+     */
+    static Double parsearCalificacion(String texto) {
+        if (texto == null) {
+            return null;
+        }
+        java.util.regex.Matcher m = java.util.regex.Pattern.compile("(\\d+[.,]?\\d*)").matcher(texto);
+        return m.find() ? Double.valueOf(m.group(1).replace(',', '.')) : null;
+    }
+}
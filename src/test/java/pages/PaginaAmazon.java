@@ -6,11 +6,22 @@ import org.openqa.selenium.interactions.Actions;
 import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.openqa.selenium.support.ui.WebDriverWait;
 import utilidades.AgregarAlCarritoException;
+import utilidades.AlmacenCapturas;
+import utilidades.Busquedas;
 import utilidades.Driver;
-
-import java.io.File;
-import java.nio.file.Files;
+import utilidades.Esperas;
+import utilidades.EstadoSesion;
+import utilidades.ModoNavegacion;
+import utilidades.PoliticaCapturas;
+import utilidades.Reintentos;
+import utilidades.VigilanteDialogos;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.List;
+import java.util.Optional;
 
 public class PaginaAmazon { // Define la clase PaginaAmazon, que representa una página de Amazon en la automatización
 
@@ -18,68 +29,91 @@ public class PaginaAmazon { // Define la clase PaginaAmazon, que representa una
 
     private WebDriverWait esperar; // Permite realizar esperas explícitas hasta que se cumplan ciertas condiciones
 
+    private String urlBase; // Sitio contra el que se ejecuta (-Damazon.url); el servidor de fixtures lo apunta a localhost
+
+    private WebElement elementoActual; // Último elemento con el que se interactuó (para capturas recortadas)
+
+    private final ModoNavegacion navegacion; // Por URL directa o recorriendo la interfaz (-Dnavegacion, @ui)
+    private String consultaActual; // Última búsqueda realizada, para construir las URLs de sus páginas
+
+    private int paginaActual = 1; // Número de la página de resultados cargada
+    private PaginaResultados resultadosLeidos; // Resultados ya leídos de la página actual (null si hay que leerlos)
+
 
     // Localizador privado del cuadro de búsqueda de Amazon, identificado por su atributo ID
     private By CuadroBusqueda = By.id("twotabsearchtextbox"); // Cuadro donde se escribe lo que se quiere buscar en Amazon
     private By Botonbusqueda = By.id("nav-search-submit-button"); // Botón que se presiona para iniciar la búsqueda
     private By Pagina2 = By.xpath("//a[contains(@class, 's-pagination-item') and contains(text(), '2')]"); // Botón para ir a la segunda página de resultados
-    private By resultados = By.cssSelector("div[data-component-type='s-search-result'], div.s-result-item:not(.AdHolder)"); // Lista de los resultados de búsqueda (excluye anuncios)
+    private By paginadoresGenericos = By.cssSelector(".s-pagination-item"); // Cualquier enlace de paginación (alternativa al anterior)
+    private By resultados = By.cssSelector(PaginaResultados.SELECTOR_RESULTADOS); // Lista de los resultados de búsqueda (excluye anuncios)
     private By seleccióndecantidad = By.id("quantity"); // Selector para elegir la cantidad del producto que se desea comprar
     private By botónAgregarAlCarrito = By.id("add-to-cart-button"); // Botón que se presiona para agregar el producto al carrito de compras
     private By títuloDelProducto = By.cssSelector("h1#title, span#productTitle"); // Título del producto en la página de detalles
 
 
     // Elementos para manejar popups y diálogos
-    private By aceptarCookies = By.cssSelector("#sp-cc-accept, .a-button-close, [data-action='a-popover-close']"); // Botón para aceptar cookies o cerrar ventanas emergentes
     private By logoDeNavegaciónDelSitio = By.id("nav-logo-sprites"); // Logo de Amazon, que normalmente redirige a la página principal
+    // Inicio de sesión de la cuenta de pruebas (solo al calentar el estado de sesión)
+    private By enlaceCuenta = By.id("nav-link-accountList"); // Enlace "Hola, identifícate" de la barra superior
+    private By campoCorreo = By.id("ap_email"); // Correo o teléfono de la cuenta
+    private By botónContinuar = By.id("continue"); // Paso del correo a la contraseña
+    private By campoClave = By.id("ap_password"); // Contraseña de la cuenta
+    private By botónIdentificarse = By.id("signInSubmit"); // Envía el formulario de inicio de sesión
     private By confirmaciónDelCarrito = By.cssSelector("div#sw-ptc-container, #huc-v2-order-row-confirm-text, #attach-accessory-pane"); // Elemento que confirma que el producto fue agregado al carrito
 
 
+    // Tiempo máximo de sondeo para elementos opcionales que, si existen, ya deberían estar en la página
+    private static final Duration ESPERA_OPCIONAL = Duration.ofSeconds(2);
+    // Tiempo máximo para que aparezca la paginación al final de los resultados
+    private static final Duration ESPERA_PAGINADOR = Duration.ofSeconds(5);
+
+    // Orden de los resultados en el modo URL, parámetro "s" de Amazon (-Damazon.orden, por ejemplo price-asc-rank)
+    private static final String ORDEN = System.getProperty("amazon.orden");
+
+    // Cuenta de pruebas opcional con la que se calienta el estado de sesión (-Dcuenta.usuario, -Dcuenta.clave)
+    private static final String CUENTA_USUARIO = System.getProperty("cuenta.usuario");
+    private static final String CUENTA_CLAVE = System.getProperty("cuenta.clave");
+
     public PaginaAmazon() {
+        this(ModoNavegacion.actual());
+    }
+
+    public PaginaAmazon(ModoNavegacion navegacion) {
+        this.navegacion = navegacion;
         this.driver = Driver.getDriver(); // Se obtiene una instancia del navegador desde la clase Driver
         this.esperar = Driver.getWait(); // Se obtiene una instancia de WebDriverWait para manejar esperas explícitas
+        this.urlBase = System.getProperty("amazon.url", "https://www.amazon.com/");
     }
 
     /**
-     * Espera aleatoria para simular comportamiento humano
+     * Espera a que la página se estabilice; en el ritmo "humano" añade además una pausa de 1 a 3 segundos
      */
-    private void esperaAleatoria() {
-        try {
-            Thread.sleep((long) (Math.random() * 2000 + 1000)); // Pausa la ejecución entre 1 y 3 segundos para simular un comportamiento humano
-        } catch (InterruptedException e) {
-            e.printStackTrace(); // Imprime el error si la espera es interrumpida
-        }
+    private void esperarRitmo() {
+        Esperas.esperarPaginaEstable(driver);
+        Esperas.pausaHumana(1000, 3000);
     }
 
 
     /**
-     * Maneja diálogos emergentes como cookies o inicios de sesión
+     * Maneja diálogos emergentes como cookies o inicios de sesión. El vigilante inyectado en la página
+     * ya cierra los banners de cookies al aparecer; aquí se cierran las ventanas emergentes que anotó,
+     * todo en un solo comando aunque no haya ningún diálogo
      */
     private void manejarDialogos() {
         try {
-            // Buscar todos los diálogos que tengan los selectores CSS correspondientes
-            List<WebElement> dialogos = driver.findElements(
-                    By.cssSelector("#sp-cc, .a-popover-visible, .a-modal-active")
-            );
-
-            // Iterar sobre cada diálogo encontrado
-            for (WebElement dialogo : dialogos) {
-                // Verificar si el diálogo está visible en la pantalla
-                if (dialogo.isDisplayed()) {
-                    // Buscar el botón para aceptar cookies dentro del diálogo
-                    List<WebElement> botones = dialogo.findElements(aceptarCookies);
-                    // Verificar si el botón de aceptar cookies está disponible y visible
-                    if (!botones.isEmpty() && botones.get(0).isDisplayed()) {
-                        // Hacer clic en el botón de aceptar cookies
-                        botones.get(0).click();
-                        // Esperar aleatoriamente entre 1 y 3 segundos
-                        esperaAleatoria();
-                    }
-                }
+            VigilanteDialogos.Estado estado = VigilanteDialogos.revisar(driver);
+            if (estado.cerrados() > 0) {
+                System.out.println("Diálogos cerrados: " + estado.cerrados());
+                // Esperar a que termine la animación de cierre en lugar de una pausa fija
+                Esperas.esperarSinFallar(driver, Esperas.domEstable());
+                Esperas.pausaHumana(1000, 3000);
+            }
+            if (estado.pendientes() > 0) {
+                System.out.println("Hay " + estado.pendientes() + " diálogos abiertos sin botón para cerrarlos");
             }
         } catch (Exception e) {
-            // Si ocurre algún error (por ejemplo, no hay diálogos o no se pueden cerrar), se ignora
-            System.out.println("No se encontraron diálogos para cerrar o no pudieron cerrarse");
+            // Si ocurre algún error (por ejemplo, la página cambió durante la revisión), se ignora
+            System.out.println("No se pudieron revisar los diálogos: " + e.getMessage());
         }
     }
 
@@ -88,14 +122,17 @@ public class PaginaAmazon { // Define la clase PaginaAmazon, que representa una
      * Scroll hasta un elemento para asegurarse que sea visible
      */
     private void scrollToElement(WebElement element) {
+        elementoActual = element;
         try {
             // Ejecutar un script de JavaScript para hacer scroll hasta el elemento especificado
+            // (suave solo en el ritmo humano; en el rápido el salto es inmediato)
+            String comportamiento = Esperas.esRitmoHumano() ? "smooth" : "auto";
             ((JavascriptExecutor) driver).executeScript(
-                    // Desplazar el elemento hasta el centro de la vista con un comportamiento suave
-                    "arguments[0].scrollIntoView({behavior: 'smooth', block: 'center'});", element
+                    "arguments[0].scrollIntoView({behavior: '" + comportamiento + "', block: 'center'});", element
             );
-            // Esperar un tiempo aleatorio entre 1 y 3 segundos después de hacer el scroll
-            esperaAleatoria();
+            // Esperar a que el desplazamiento termine
+            Esperas.esperarScroll(driver, element);
+            Esperas.pausaHumana(1000, 3000);
         } catch (Exception e) {
             // Si ocurre un error, imprimir un mensaje de error en la consola
             System.out.println("No se pudo hacer scroll: " + e.getMessage());
@@ -107,21 +144,9 @@ public class PaginaAmazon { // Define la clase PaginaAmazon, que representa una
      */
     public void abrirHome() {
         try {
-            // Abre la página principal de Amazon utilizando la URL proporcionada
-            driver.get("https://www.amazon.com/");
-
-            // Intentar esperar por el logo de Amazon
+            // Abre la página principal de Amazon y, si el logo no aparece, la recarga según la política de reintentos
             boolean logoCargado = esperarPorLogo();
 
-            // Si no se carga el logo, volver a intentar cargar la página
-            int intentos = 0;
-            while (!logoCargado && intentos < 3) {  // Intentar hasta 3 veces
-                System.out.println("Logo no encontrado. Intentando recargar la página...");
-                driver.get("https://www.amazon.com/");  // Recargar la página
-                logoCargado = esperarPorLogo();  // Esperar nuevamente por el logo
-                intentos++;
-            }
-
             if (!logoCargado) {
                 // Manejo de error si no se carga el logo después de varios intentos
                 System.out.println("No se pudo cargar el logo después de varios intentos");
@@ -134,6 +159,13 @@ public class PaginaAmazon { // Define la clase PaginaAmazon, que representa una
             // Espera hasta que la caja de búsqueda (donde se pueden ingresar términos de búsqueda) sea visible
             esperar.until(ExpectedConditions.visibilityOfElementLocated(CuadroBusqueda));
 
+            // Primera vez: con la home lista (cookies aceptadas y, si hay cuenta de pruebas, sesión iniciada) se guarda
+            // el estado para que los navegadores siguientes lo restauren y empiecen con una sola carga de página
+            if (EstadoSesion.hayQueCalentar(urlBase)) {
+                iniciarSesionSiHayCuenta();
+                EstadoSesion.guardar(driver);
+            }
+
             // Imprime un mensaje en la consola indicando que la página de Amazon se ha cargado correctamente
             System.out.println("Página de Amazon cargada correctamente");
         } catch (Exception e) {
@@ -144,14 +176,34 @@ public class PaginaAmazon { // Define la clase PaginaAmazon, que representa una
         }
     }
 
-    // Método auxiliar para esperar el logo
+    /**
+     * Inicia sesión con la cuenta de pruebas configurada y vuelve a la home; sin cuenta no hace nada
+     */
+    private void iniciarSesionSiHayCuenta() {
+        if (CUENTA_USUARIO == null || CUENTA_CLAVE == null) {
+            return;
+        }
+        driver.findElement(enlaceCuenta).click();
+        esperar.until(ExpectedConditions.visibilityOfElementLocated(campoCorreo)).sendKeys(CUENTA_USUARIO);
+        driver.findElement(botónContinuar).click();
+        esperar.until(ExpectedConditions.visibilityOfElementLocated(campoClave)).sendKeys(CUENTA_CLAVE);
+        driver.findElement(botónIdentificarse).click();
+        // Amazon vuelve a la página de origen al identificarse
+        esperar.until(ExpectedConditions.visibilityOfElementLocated(CuadroBusqueda));
+        System.out.println("Sesión iniciada con la cuenta de pruebas: " + CUENTA_USUARIO);
+    }
+
+    // Método auxiliar para cargar la home y esperar el logo
     private boolean esperarPorLogo() {
         try {
-            // Espera por el logo de Amazon hasta que sea visible
-            esperar.until(ExpectedConditions.visibilityOfElementLocated(logoDeNavegaciónDelSitio));
+            Reintentos.ejecutar("abrirHome", intento -> {
+                driver.get(urlBase);
+                // Espera por el logo de Amazon hasta que sea visible
+                return esperar.until(ExpectedConditions.visibilityOfElementLocated(logoDeNavegaciónDelSitio));
+            });
             return true;  // Si se carga el logo, retorna true
         } catch (Exception e) {
-            return false;  // Si no se encuentra el logo, retorna false
+            return false;  // Si no se encuentra el logo tras los reintentos, retorna false
         }
     }
 
@@ -161,28 +213,34 @@ public class PaginaAmazon { // Define la clase PaginaAmazon, que representa una
      */
     public void buscar(String producto) {
         try {
+            if (navegacion == ModoNavegacion.URL) {
+                // Modo URL: la página de resultados se carga directamente, sin escribir ni hacer clic
+                cargarResultados(producto, 1);
+                System.out.println("Búsqueda realizada correctamente: " + producto);
+                return;
+            }
+
             // Espera a que la caja de búsqueda sea clickeable, lo cual asegura que el elemento esté interactuable
             WebElement caja = esperar.until(ExpectedConditions.elementToBeClickable(CuadroBusqueda));
 
-            // Limpia el contenido actual de la caja de búsqueda y espera un momento para simular una pausa natural
+            // Limpia el contenido actual de la caja de búsqueda (con una pausa natural en el ritmo humano)
             caja.clear();
-            esperaAleatoria();
+            Esperas.pausaHumana(1000, 3000);
 
-            // Envía el texto letra por letra para simular una escritura humana
-            try {
+            if (Esperas.esRitmoHumano()) {
+                // Envía el texto letra por letra para simular una escritura humana
                 for (char c : producto.toCharArray()) {
-                    // Convierte cada carácter en un String y lo escribe en la caja de búsqueda
                     caja.sendKeys(String.valueOf(c));
-                    // Hace una pausa aleatoria entre cada letra, para simular el tiempo que tomaría escribir
-                    Thread.sleep((long) (Math.random() * 150)); // Pausa entre 0 y 150 ms
+                    Esperas.pausaHumana(0, 150); // Pausa entre 0 y 150 ms
                 }
-            } catch (InterruptedException e) {
-                // Si ocurre un error durante la pausa, lo captura y lo imprime en consola
-                System.out.println("Error durante la escritura pausada: " + e.getMessage());
+            } else {
+                // En el ritmo rápido se escribe el texto completo en un solo comando
+                caja.sendKeys(producto);
             }
 
-            // Después de escribir el texto, hace otra pequeña espera aleatoria
-            esperaAleatoria();
+            // Esperar a que el texto quede confirmado en la caja de búsqueda
+            esperar.until(ExpectedConditions.textToBePresentInElementValue(caja, producto));
+            Esperas.pausaHumana(1000, 3000);
 
             // Espera a que el botón de búsqueda sea clickeable antes de hacer clic en él
             WebElement botonBusqueda = esperar.until(ExpectedConditions.elementToBeClickable(Botonbusqueda));
@@ -190,6 +248,9 @@ public class PaginaAmazon { // Define la clase PaginaAmazon, que representa una
 
             // Espera hasta que los resultados de la búsqueda sean visibles en la página
             esperar.until(ExpectedConditions.presenceOfElementLocated(resultados));
+            paginaActual = 1;
+            resultadosLeidos = null;
+            consultaActual = producto;
             System.out.println("Búsqueda realizada correctamente: " + producto);
 
         } catch (Exception e) {
@@ -204,14 +265,22 @@ public class PaginaAmazon { // Define la clase PaginaAmazon, que representa una
      */
     public void irAPagina2() {
         try {
-            // Busca el enlace a la página 2 con un selector CSS más robusto
-            List<WebElement> paginadores = driver.findElements(Pagina2);
+            if (navegacion == ModoNavegacion.URL && consultaActual != null) {
+                // Modo URL: una sola carga de página en lugar de buscar, desplazar y pulsar el paginador
+                irAPagina(2);
+                System.out.println("Navegación a página 2 exitosa");
+                return;
+            }
+
+            // Carrera entre el enlace exacto a la página 2 y cualquier paginador: gana el primero que aparezca
+            Busquedas.Coincidencia coincidencia = Busquedas.primero(driver, ESPERA_PAGINADOR, Pagina2, paginadoresGenericos)
+                    .orElseThrow(() -> new RuntimeException("No se encontró ningún paginador"));
+            List<WebElement> paginadores = coincidencia.elementos();
 
-            // Si no encuentra el enlace de la página 2 exacto, busca cualquier paginador y selecciona el segundo
-            if (paginadores.isEmpty()) {
-                // Si no se encuentra el enlace exacto, imprime un mensaje indicando que se está buscando una alternativa
-                System.out.println("No se encontró el paginador exacto, buscando alternativas...");
-                paginadores = driver.findElements(By.cssSelector(".s-pagination-item"));
+            // Si no encuentra el enlace de la página 2 exacto, usa el segundo paginador
+            if (coincidencia.indice() > 0) {
+                // Si no se encuentra el enlace exacto, imprime un mensaje indicando que se está usando una alternativa
+                System.out.println("No se encontró el paginador exacto, usando alternativas...");
 
                 // Verifica si encontró al menos 2 elementos de paginación
                 if (paginadores.size() >= 2) {
@@ -236,6 +305,8 @@ public class PaginaAmazon { // Define la clase PaginaAmazon, que representa una
 
             // Espera hasta que los resultados sean visibles en la nueva página
             esperar.until(ExpectedConditions.presenceOfElementLocated(resultados));
+            paginaActual = 2;
+            resultadosLeidos = null;
             System.out.println("Navegación a página 2 exitosa");
 
         } catch (Exception e) {
@@ -246,6 +317,40 @@ public class PaginaAmazon { // Define la clase PaginaAmazon, que representa una
     }
 
 
+    /**
+     * Carga directamente la página indicada de la última búsqueda
+     */
+    public void irAPagina(int numero) {
+        if (consultaActual == null) {
+            throw new IllegalStateException("No hay una búsqueda previa para ir a la página " + numero);
+        }
+        cargarResultados(consultaActual, numero);
+    }
+
+    /**
+     * URL de la página de resultados de una búsqueda, con el orden configurado si lo hay
+     */
+    public String urlBusqueda(String consulta, int pagina) {
+        StringBuilder url = new StringBuilder(urlBase.endsWith("/") ? urlBase : urlBase + "/")
+                .append("s?k=").append(URLEncoder.encode(consulta, StandardCharsets.UTF_8));
+        if (pagina > 1) {
+            url.append("&page=").append(pagina);
+        }
+        if (ORDEN != null && !ORDEN.isEmpty()) {
+            url.append("&s=").append(URLEncoder.encode(ORDEN, StandardCharsets.UTF_8));
+        }
+        return url.toString();
+    }
+
+    private void cargarResultados(String consulta, int pagina) {
+        driver.get(urlBusqueda(consulta, pagina));
+        esperar.until(ExpectedConditions.presenceOfElementLocated(resultados));
+        consultaActual = consulta;
+        paginaActual = pagina;
+        resultadosLeidos = null;
+    }
+
+
     /**
      * Selecciona el tercer ítem con mejor manejo de errores y casos extremos
      */
@@ -254,181 +359,17 @@ public class PaginaAmazon { // Define la clase PaginaAmazon, que representa una
             // Espera a que los resultados de búsqueda estén presentes
             esperar.until(ExpectedConditions.presenceOfElementLocated(resultados));
 
-            // Pausa corta para asegurar carga inicial
-            try {
-                Thread.sleep(1000); // Reducido a 1 segundo
-            } catch (InterruptedException e) {
-                // Ignorar interrupción
-            }
-
-            // Obtener resultados de búsqueda visibles
-            List<WebElement> items = driver.findElements(resultados);
-
-            // Limitar a 10 elementos para optimizar
-            int maxItems = Math.min(items.size(), 10);
-            if (maxItems > 0) {
-                items = items.subList(0, maxItems);
-            }
-
-            // Verificar que tengamos suficientes resultados y mostrar cuántos hay
-            if (items.size() < 3) {
-                System.out.println("Advertencia: Solo se encontraron " + items.size() + " resultados");
-                throw new RuntimeException("No hay suficientes resultados para seleccionar el tercero");
-            }
-
-            System.out.println("Número total de resultados (limitado a 10): " + items.size());
-
-            // Para depuración: Listar los elementos encontrados (máximo 10)
-            System.out.println("=== LISTADO DE ELEMENTOS ENCONTRADOS (MÁXIMO 10) ===");
-            for (int i = 0; i < items.size(); i++) {
-                try {
-                    WebElement item = items.get(i);
-                    String title = "No disponible";
-                    try {
-                        // Intentar obtener el título del producto con selector simplificado
-                        List<WebElement> titleElems = item.findElements(
-                                By.cssSelector("h2, .a-text-normal")
-                        );
-                        if (!titleElems.isEmpty()) {
-                            title = titleElems.get(0).getText();
-                        }
-                    } catch (Exception e) {
-                        // Si no se puede obtener el título, usar atributo aria-label
-                        try {
-                            title = item.getAttribute("aria-label");
-                        } catch (Exception e2) {
-                            // Ignorar si tampoco funciona
-                        }
-                    }
-                    System.out.println("Ítem #" + (i+1) + ": " + title);
-                } catch (Exception e) {
-                    System.out.println("Error al leer información del ítem #" + (i+1));
-                }
-            }
-
-            // Filtrar solo ítems que sean productos reales (limitado a 10)
-            List<WebElement> productosReales = new java.util.ArrayList<>();
-            int contadorReales = 0;
-
-            for (WebElement item : items) {
-                // Verificar si este item parece un producto real (tiene título y precio)
-                boolean esProductoReal = false;
-
-                try {
-                    // Verificación simplificada
-                    boolean tieneEnlace = !item.findElements(By.tagName("a")).isEmpty();
-                    boolean tieneTitulo = !item.findElements(By.cssSelector("h2, .a-text-normal")).isEmpty();
+            // Esperar a que la lista de resultados termine de renderizarse
+            Esperas.esperarPaginaEstable(driver);
 
-                    // Si tiene ambos elementos, considerarlo un producto real
-                    esProductoReal = tieneEnlace && tieneTitulo;
-                } catch (Exception e) {
-                    // Verificación alternativa por atributo
-                    try {
-                        esProductoReal = item.getAttribute("data-component-type").equals("s-search-result");
-                    } catch (Exception e2) {
-                        // No hacer nada si esto también falla
-                    }
+            // Lectura, selección y clic se repiten juntos si la lista cambia bajo el elemento
+            Reintentos.ejecutar("seleccionarTercerItem", intento -> {
+                if (intento > 1) {
+                    resultadosLeidos = null; // Los elementos leídos quedaron obsoletos: se vuelve a leer el DOM
                 }
-
-                // Si parece un producto real, añadirlo a nuestra lista filtrada
-                if (esProductoReal) {
-                    productosReales.add(item);
-                    contadorReales++;
-                    System.out.println("Añadido a productos reales: " + contadorReales);
-
-                    // Limitar a 10 productos reales para optimizar
-                    if (contadorReales >= 10) {
-                        break;
-                    }
-                }
-            }
-
-            System.out.println("Productos reales identificados: " + productosReales.size());
-
-            // Verificar si tenemos suficientes productos reales
-            if (productosReales.size() < 3) {
-                System.out.println("ADVERTENCIA: No hay suficientes productos reales. Usando lista original.");
-                productosReales = items; // Volver a la lista original si no hay suficientes productos filtrados
-            }
-
-            // SELECCIÓN DEL TERCER PRODUCTO (índice 2)
-            WebElement tercerItem = productosReales.get(2);
-
-            String itemText = "No disponible";
-            try {
-                // Intentar obtener el texto simplificado
-                List<WebElement> titleElems = tercerItem.findElements(By.cssSelector("h2, .a-text-normal"));
-                if (!titleElems.isEmpty()) {
-                    itemText = titleElems.get(0).getText();
-                }
-            } catch (Exception e) {
-                // Si no se puede obtener el texto, usar aria-label
-                try {
-                    itemText = tercerItem.getAttribute("aria-label");
-                } catch (Exception e2) {
-                    System.out.println("No se pudo obtener ningún texto del tercer ítem");
-                }
-            }
-
-            System.out.println("=== SELECCIONANDO TERCER ÍTEM ===");
-            System.out.println("Texto/título del tercer ítem seleccionado: " + itemText);
-
-            // Tomar screenshot para verificación
-            try {
-                tomarCapturaPantalla("antes_de_clic_tercer_item");
-            } catch (Exception e) {
-                System.out.println("No se pudo tomar captura de pantalla: " + e.getMessage());
-            }
-
-            // Scroll al elemento con JavaScript - asegura que esté visible
-            try {
-                ((JavascriptExecutor) driver).executeScript(
-                        "arguments[0].scrollIntoView({block: 'center'});", tercerItem);
-
-                // Añadir destaque visual para confirmar selección
-                ((JavascriptExecutor) driver).executeScript(
-                        "arguments[0].style.border='3px solid red';", tercerItem);
-
-                // Esperar brevemente
-                Thread.sleep(500);
-            } catch (Exception e) {
-                System.out.println("Error durante el scroll: " + e.getMessage());
-            }
-
-            // Buscar el elemento clickeable dentro del tercer ítem
-            WebElement enlace = null;
-            try {
-                // Selector simplificado para enlaces
-                List<WebElement> posiblesEnlaces = tercerItem.findElements(By.cssSelector("h2 a, a.a-link-normal"));
-                if (!posiblesEnlaces.isEmpty()) {
-                    enlace = posiblesEnlaces.get(0);
-                } else {
-                    enlace = tercerItem.findElement(By.tagName("a"));
-                }
-            } catch (Exception e) {
-                System.out.println("Error buscando el enlace: " + e.getMessage());
-                throw new RuntimeException("No se pudo encontrar un enlace clickeable");
-            }
-
-            // Guardar referencia del URL actual para verificar cambio
-            String urlAntes = driver.getCurrentUrl();
-
-            // CLIC EN EL ENLACE
-            try {
-                // Intento con clic básico
-                enlace.click();
-                System.out.println("Clic normal realizado");
-            } catch (Exception e) {
-                // Si falla, usar JavaScript
-                try {
-                    ((JavascriptExecutor) driver).executeScript("arguments[0].click();", enlace);
-                    System.out.println("Clic con JavaScript realizado");
-                } catch (Exception e2) {
-                    throw new RuntimeException("No se pudo hacer clic en el enlace");
-                }
-            }
-
-            System.out.println("CLIC REALIZADO EN EL TERCER ÍTEM (índice 2) DE LA LISTA");
+                clicEnTercerItem();
+                return null;
+            });
 
             // Esperar a que cambie la página - selector simplificado
             try {
@@ -462,7 +403,7 @@ public class PaginaAmazon { // Define la clase PaginaAmazon, que representa una
             } catch (Exception e) {
                 System.out.println("Error esperando la página de producto: " + e.getMessage());
                 try {
-                    tomarCapturaPantalla("error_carga_producto");
+                    tomarCapturaPantalla("error_carga_producto", true);
                 } catch (Exception e2) {
                     // Ignorar errores de captura
                 }
@@ -474,7 +415,7 @@ public class PaginaAmazon { // Define la clase PaginaAmazon, que representa una
         } catch (Exception e) {
             System.out.println("Error al seleccionar tercer ítem: " + e.getMessage());
             try {
-                tomarCapturaPantalla("error_seleccion");
+                tomarCapturaPantalla("error_seleccion", true);
             } catch (Exception e2) {
                 // Ignorar errores de captura
             }
@@ -483,151 +424,225 @@ public class PaginaAmazon { // Define la clase PaginaAmazon, que representa una
     }
 
     /**
-     * Método auxiliar para tomar capturas de pantalla
+     * Lista los primeros resultados, elige el tercer producto real y hace clic en su enlace
      */
-    private void tomarCapturaPantalla(String nombre) {
-        try {
-            // Crear directorio si no existe
-            File directorio = new File("target/screenshots");
-            if (!directorio.exists()) {
-                directorio.mkdirs();
-            }
+    private void clicEnTercerItem() {
+        // Obtener los datos de todos los resultados en una sola llamada (se listan los 10 primeros)
+        PaginaResultados pagina = leerResultados();
+        List<ResultadoBusqueda> items = pagina.getResultados().stream().limit(10).toList();
+
+        // Verificar que tengamos suficientes resultados y mostrar cuántos hay
+        if (items.size() < 3) {
+            System.out.println("Advertencia: Solo se encontraron " + items.size() + " resultados");
+            throw new RuntimeException("No hay suficientes resultados para seleccionar el tercero");
+        }
 
-            File scrFile = ((TakesScreenshot)driver).getScreenshotAs(OutputType.FILE);
-            Files.copy(scrFile.toPath(), new File("target/screenshots/" + nombre + "_" + System.currentTimeMillis() + ".png").toPath());
-        } catch (Exception e) {
-            System.out.println("No se pudo tomar captura de pantalla: " + e.getMessage());
+        System.out.println("Número total de resultados (limitado a 10): " + items.size());
+
+        // Para depuración: Listar los elementos encontrados (máximo 10)
+        System.out.println("=== LISTADO DE ELEMENTOS ENCONTRADOS (MÁXIMO 10) ===");
+        for (ResultadoBusqueda item : items) {
+            System.out.println("Ítem #" + (item.indice() + 1) + ": " + item.titulo()
+                    + (item.patrocinado() ? " [patrocinado]" : ""));
         }
-    }
-    /**
-     * Agrega al carrito con manejo robusto de diferentes diseños de página
-     * y reintento de selección de cantidad
-     */
-    public void agregarAlCarrito(int cantidad) throws AgregarAlCarritoException {
-        boolean productoAgregadoExitosamente = false;
-        String mensajeError = "";
-        int maxIntentos = 2;
-        int intentoActual = 0;
 
-        while (intentoActual < maxIntentos && !productoAgregadoExitosamente) {
-            intentoActual++;
-            System.out.println("Intento " + intentoActual + " de " + maxIntentos + " para agregar al carrito");
+        // Filtrar solo ítems que sean productos reales (tienen enlace y título)
+        List<ResultadoBusqueda> productosReales = pagina.filtrar(ResultadoBusqueda::esProductoReal)
+                .stream().limit(10).toList();
 
-            try {
-                // Esperar a que la página se cargue completamente
-                esperaAleatoria();
-                manejarDialogos();
+        System.out.println("Productos reales identificados: " + productosReales.size());
 
-                /* En cada intento, volver a intentar seleccionar la cantidad */
-                boolean haySelector = false;
-                try {
-                    List<WebElement> selectores = driver.findElements(seleccióndecantidad);
-                    if (!selectores.isEmpty() && selectores.get(0).isDisplayed()) {
-                        WebElement select = selectores.get(0);
-                        scrollToElement(select);
+        // Verificar si tenemos suficientes productos reales
+        if (productosReales.size() < 3) {
+            System.out.println("ADVERTENCIA: No hay suficientes productos reales. Usando lista original.");
+            productosReales = items; // Volver a la lista original si no hay suficientes productos filtrados
+        }
 
-                        // Seleccionar la cantidad usando Select
-                        new org.openqa.selenium.support.ui.Select(select)
-                                .selectByValue(String.valueOf(cantidad));
+        // SELECCIÓN DEL TERCER PRODUCTO (índice 2)
+        ResultadoBusqueda tercerItem = productosReales.get(2);
 
-                        // IMPORTANTE: Añadir un tiempo de espera para que el dropdown se cierre
-                        Thread.sleep(1000);
+        System.out.println("=== SELECCIONANDO TERCER ÍTEM ===");
+        System.out.println("Texto/título del tercer ítem seleccionado: " + tercerItem.titulo());
 
-                        // Hacer clic en otro lugar para cerrar el dropdown
-                        Actions actions = new Actions(driver);
-                        actions.moveToElement(driver.findElement(By.tagName("body"))).click().perform();
-                        Thread.sleep(500);
+        // Scroll al elemento, destaque visual y obtención del enlace en una sola llamada
+        WebElement enlace = pagina.enlaceDe(tercerItem);
+        if (enlace == null) {
+            throw new RuntimeException("No se pudo encontrar un enlace clickeable");
+        }
+        elementoActual = enlace;
+        Esperas.esperarScroll(driver, enlace);
 
-                        haySelector = true;
-                        System.out.println("Selector de cantidad encontrado y configurado a: " + cantidad);
-                    }
-                } catch (Exception e) {
-                    mensajeError = "No se encontró selector de cantidad o no se pudo usar: " + e.getMessage();
-                    System.out.println(mensajeError);
-                    // No lanzamos excepción aquí porque intentaremos verificar si la cantidad es 1
-                }
+        // Tomar screenshot para verificación
+        try {
+            tomarCapturaPantalla("antes_de_clic_tercer_item", false);
+        } catch (Exception e) {
+            System.out.println("No se pudo tomar captura de pantalla: " + e.getMessage());
+        }
 
-                // Si no hay selector de cantidad, NUNCA permitir continuar
-                if (!haySelector) {
-                    mensajeError = "No hay selector de cantidad disponible. No se puede agregar al carrito.";
-                    System.out.println(mensajeError);
-                    throw new AgregarAlCarritoException(mensajeError);
-                }
+        // CLIC EN EL ENLACE
+        try {
+            // Intento con clic básico
+            enlace.click();
+            System.out.println("Clic normal realizado");
+        } catch (Exception e) {
+            // Si falla, usar JavaScript
+            try {
+                ((JavascriptExecutor) driver).executeScript("arguments[0].click();", enlace);
+                System.out.println("Clic con JavaScript realizado");
+            } catch (Exception e2) {
+                throw new RuntimeException("No se pudo hacer clic en el enlace", e2);
+            }
+        }
 
-                // NUEVO: Re-obtener el botón cada vez para evitar el error "stale element reference"
-                try {
-                    // Esperar y obtener el botón justo antes de usarlo
-                    WebElement boton = esperar.until(
-                            ExpectedConditions.refreshed(
-                                    ExpectedConditions.elementToBeClickable(botónAgregarAlCarrito)
-                            )
-                    );
-
-                    scrollToElement(boton);
-
-                    // Intentar con click() directo primero
-                    try {
-                        boton.click();
-                        System.out.println("Clic directo en botón Agregar al carrito");
-                    } catch (Exception e) {
-                        // Si falla el click directo, intentar con JavaScript
-                        System.out.println("Click directo falló, intentando con JavaScript: " + e.getMessage());
-                        JavascriptExecutor js = (JavascriptExecutor) driver;
-                        js.executeScript("arguments[0].click();", boton);
-                        System.out.println("Clic en botón Agregar al carrito (usando JavaScript)");
-                    }
+        System.out.println("CLIC REALIZADO EN EL TERCER ÍTEM (índice 2) DE LA LISTA");
+    }
 
-                    // Esperar confirmación (probar varios selectores)
-                    try {
-                        esperar.until(ExpectedConditions.or(
-                                ExpectedConditions.visibilityOfElementLocated(confirmaciónDelCarrito),
-                                ExpectedConditions.urlContains("cart"),
-                                ExpectedConditions.urlContains("huc")
-                        ));
-                        productoAgregadoExitosamente = true;
-                        System.out.println("Producto agregado al carrito exitosamente");
-                    } catch (TimeoutException te) {
-                        if (intentoActual >= maxIntentos) {
-                            mensajeError = "Timeout esperando confirmación de carrito: " + te.getMessage();
-                            System.out.println(mensajeError);
-                            throw new AgregarAlCarritoException(mensajeError);
-                        } else {
-                            System.out.println("Timeout en confirmación, reintentando... (" + intentoActual + "/" + maxIntentos + ")");
-                            // Permitir que continue el bucle para reintentar
-                            continue;
-                        }
-                    }
+    /**
+     * Devuelve los resultados de la página actual; el DOM solo se lee la primera vez
+     */
+    public PaginaResultados leerResultados() {
+        if (resultadosLeidos == null) {
+            resultadosLeidos = PaginaResultados.leer(driver, paginaActual);
+        }
+        return resultadosLeidos;
+    }
 
-                } catch (Exception e) {
-                    if (intentoActual >= maxIntentos) {
-                        mensajeError = "Error al hacer clic en Agregar al carrito: " + e.getMessage();
-                        System.out.println(mensajeError);
-                        throw new AgregarAlCarritoException(mensajeError);
-                    } else {
-                        System.out.println("Error en clic, reintentando... (" + intentoActual + "/" + maxIntentos + "): " + e.getMessage());
-                        // Permitir que continue el bucle para reintentar
-                        continue;
-                    }
-                }
+    /**
+     * Recorre de forma perezosa hasta maximo páginas de resultados desde la actual. La primera reutiliza los
+     * resultados ya leídos; al avanzar, la última página cargada pasa a ser la actual para los demás métodos
+     */
+    public Iterable<PaginaResultados> paginasDeResultados(int maximo) {
+        return PaginaResultados.paginas(this::leerResultados, maximo, pagina -> {
+            paginaActual = pagina.getNumero();
+            resultadosLeidos = pagina;
+        });
+    }
 
-            } catch (AgregarAlCarritoException e) {
-                throw e; // Relanzamos la excepción específica
-            } catch (Exception e) {
-                if (intentoActual >= maxIntentos) {
-                    mensajeError = "Error no controlado al agregar al carrito: " + e.getMessage();
-                    System.out.println(mensajeError);
-                    throw new AgregarAlCarritoException(mensajeError, e);
-                } else {
-                    System.out.println("Error general, reintentando... (" + intentoActual + "/" + maxIntentos + "): " + e.getMessage());
-                    // Permitir que continue el bucle para reintentar
-                }
+    /**
+     * Devuelve el último elemento con el que se interactuó, o null si no hay ninguno
+     */
+    public WebElement getElementoActual() {
+        return elementoActual;
+    }
+
+    /**
+     * Método auxiliar para tomar capturas de pantalla de depuración en target/screenshots,
+     * respetando la política de capturas configurada
+     */
+    private void tomarCapturaPantalla(String nombre, boolean fallo) {
+        PoliticaCapturas politica = PoliticaCapturas.actual();
+        if (!politica.debeCapturar(fallo, false, false)) {
+            return;
+        }
+        try {
+            byte[] bytes = politica.recortaElemento() && elementoActual != null
+                    ? elementoActual.getScreenshotAs(OutputType.BYTES)
+                    : ((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES);
+            // El reescalado, la compresión y la escritura se hacen en segundo plano
+            AlmacenCapturas.guardarComo(bytes, Paths.get("target", "screenshots"), nombre + "_" + System.currentTimeMillis());
+        } catch (Exception e) {
+            System.out.println("No se pudo tomar captura de pantalla: " + e.getMessage());
+        }
+    }
+    /**
+     * Agrega al carrito con manejo robusto de diferentes diseños de página.
+     * Los fallos transitorios (clic interceptado, confirmación que no llega) se reintentan
+     * según la política "agregarAlCarrito" de Reintentos; los demás fallan en el primer intento.
+     */
+    public void agregarAlCarrito(int cantidad) throws AgregarAlCarritoException {
+        try {
+            Reintentos.ejecutar("agregarAlCarrito", intento -> {
+                System.out.println("Intento " + intento + " para agregar al carrito");
+                intentarAgregarAlCarrito(cantidad);
+                return null;
+            });
+        } catch (TimeoutException e) {
+            String mensajeError = "Timeout esperando confirmación de carrito: " + e.getMessage();
+            System.out.println(mensajeError);
+            throw new AgregarAlCarritoException(mensajeError, e);
+        } catch (WebDriverException e) {
+            String mensajeError = "Error al hacer clic en Agregar al carrito: " + e.getMessage();
+            System.out.println(mensajeError);
+            throw new AgregarAlCarritoException(mensajeError, e);
+        } catch (RuntimeException e) {
+            String mensajeError = "Error no controlado al agregar al carrito: " + e.getMessage();
+            System.out.println(mensajeError);
+            throw new AgregarAlCarritoException(mensajeError, e);
+        }
+    }
+
+    /**
+     * Un intento completo: cantidad, clic en el botón y espera de la confirmación
+     */
+    private void intentarAgregarAlCarrito(int cantidad) throws AgregarAlCarritoException {
+        // Esperar a que la página se cargue completamente
+        esperarRitmo();
+        manejarDialogos();
+
+        /* En cada intento, volver a intentar seleccionar la cantidad */
+        boolean haySelector = false;
+        try {
+            // Sondeo corto: la página ya está estable, así que si falta el selector se sabe en milisegundos
+            Optional<WebElement> selector = Busquedas.aparece(driver, seleccióndecantidad, ESPERA_OPCIONAL);
+            if (selector.isPresent() && selector.get().isDisplayed()) {
+                WebElement select = selector.get();
+                scrollToElement(select);
+
+                // Seleccionar la cantidad usando Select
+                new org.openqa.selenium.support.ui.Select(select)
+                        .selectByValue(String.valueOf(cantidad));
+
+                // IMPORTANTE: Esperar a que el valor quede confirmado en el select
+                esperar.until(Esperas.valorSeleccionado(select, String.valueOf(cantidad)));
+
+                // Hacer clic en otro lugar para cerrar el dropdown
+                Actions actions = new Actions(driver);
+                actions.moveToElement(driver.findElement(By.tagName("body"))).click().perform();
+                Esperas.esperarSinFallar(driver, Esperas.domEstable());
+
+                haySelector = true;
+                System.out.println("Selector de cantidad encontrado y configurado a: " + cantidad);
             }
+        } catch (Exception e) {
+            System.out.println("No se encontró selector de cantidad o no se pudo usar: " + e.getMessage());
+            // No lanzamos excepción aquí porque intentaremos verificar si la cantidad es 1
         }
 
-        // Si llegamos hasta aquí sin verificar el éxito, lanzamos una excepción
-        if (!productoAgregadoExitosamente) {
-            throw new AgregarAlCarritoException("No se pudo confirmar que el producto fue agregado al carrito después de " + maxIntentos + " intentos");
+        // Si no hay selector de cantidad, NUNCA permitir continuar
+        if (!haySelector) {
+            String mensajeError = "No hay selector de cantidad disponible. No se puede agregar al carrito.";
+            System.out.println(mensajeError);
+            throw new AgregarAlCarritoException(mensajeError);
         }
+
+        // Re-obtener el botón en cada intento para evitar el error "stale element reference"
+        WebElement boton = esperar.until(
+                ExpectedConditions.refreshed(
+                        ExpectedConditions.elementToBeClickable(botónAgregarAlCarrito)
+                )
+        );
+
+        scrollToElement(boton);
+
+        // Intentar con click() directo primero
+        try {
+            boton.click();
+            System.out.println("Clic directo en botón Agregar al carrito");
+        } catch (Exception e) {
+            // Si falla el click directo, intentar con JavaScript
+            System.out.println("Click directo falló, intentando con JavaScript: " + e.getMessage());
+            JavascriptExecutor js = (JavascriptExecutor) driver;
+            js.executeScript("arguments[0].click();", boton);
+            System.out.println("Clic en botón Agregar al carrito (usando JavaScript)");
+        }
+
+        // Esperar confirmación (probar varios selectores); un TimeoutException aquí se reintenta
+        esperar.until(ExpectedConditions.or(
+                ExpectedConditions.visibilityOfElementLocated(confirmaciónDelCarrito),
+                ExpectedConditions.urlContains("cart"),
+                ExpectedConditions.urlContains("huc")
+        ));
+        System.out.println("Producto agregado al carrito exitosamente");
     }
 
 }
@@ -0,0 +1,153 @@
+package pages;
+// Clase PaginaResultados: una página de resultados de búsqueda leída una sola vez como lista inmutable
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.ui.ExpectedConditions;
+import utilidades.EsperaMedida;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+public class PaginaResultados {
+
+    // Resultados de búsqueda (excluye el contenedor de anuncios)
+    public static final String SELECTOR_RESULTADOS = "div[data-component-type='s-search-result'], div.s-result-item:not(.AdHolder)";
+    // Máximo de resultados que se leen por página
+    private static final int MAXIMO_RESULTADOS = 60;
+    // Tiempo máximo para que aparezcan los resultados al cargar la página siguiente
+    private static final Duration ESPERA_RESULTADOS = Duration.ofSeconds(20);
+
+    private final WebDriver driver;
+    private final int numero; // Número de página (empezando en 1)
+    private final List<ResultadoBusqueda> resultados;
+
+    private PaginaResultados(WebDriver driver, int numero, List<ResultadoBusqueda> resultados) {
+        this.driver = driver;
+        this.numero = numero;
+        this.resultados = resultados;
+    }
+
+    /**
+     * Lee la página de resultados cargada actualmente en el navegador
+     */
+    public static PaginaResultados leer(WebDriver driver, int numero) {
+        return new PaginaResultados(driver, numero,
+                ExtractorResultados.extraer(driver, SELECTOR_RESULTADOS, MAXIMO_RESULTADOS, numero));
+    }
+
+    /**
+     * Recorre de forma perezosa hasta maximo páginas empezando por la actual, que se pide a actual (normalmente
+     * la ya leída por la página que recorre): cada página siguiente solo se carga cuando se pide, y se avisa
+     * a alCargar para que quien recorre sepa en qué página quedó el navegador
+     */
+    public static Iterable<PaginaResultados> paginas(Supplier<PaginaResultados> actual, int maximo,
+                                                     Consumer<PaginaResultados> alCargar) {
+        return () -> new Iterator<>() {
+            private PaginaResultados anterior; // Última página entregada
+            private PaginaResultados siguiente; // Página ya cargada por hasNext y aún no entregada
+            private int entregadas;
+            private boolean fin;
+
+            @Override
+            public boolean hasNext() {
+                if (siguiente != null) {
+                    return true;
+                }
+                if (fin || entregadas >= maximo) {
+                    return false;
+                }
+                if (anterior == null) {
+                    siguiente = actual.get();
+                } else {
+                    siguiente = anterior.siguiente().orElse(null);
+                    if (siguiente != null) {
+                        alCargar.accept(siguiente);
+                    }
+                }
+                fin = siguiente == null;
+                return !fin;
+            }
+
+            @Override
+            public PaginaResultados next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                anterior = siguiente;
+                siguiente = null;
+                entregadas++;
+                return anterior;
+            }
+        };
+    }
+
+    public int getNumero() {
+        return numero;
+    }
+
+    public List<ResultadoBusqueda> getResultados() {
+        return resultados;
+    }
+
+    public List<ResultadoBusqueda> filtrar(Predicate<ResultadoBusqueda> criterio) {
+        return resultados.stream().filter(criterio).toList();
+    }
+
+    /**
+     * Primer resultado que cumple el criterio
+     */
+    public Optional<ResultadoBusqueda> seleccionar(Predicate<ResultadoBusqueda> criterio) {
+        return resultados.stream().filter(criterio).findFirst();
+    }
+
+    /**
+     * Resultado en la posición indicada (empezando en 0) entre los que cumplen el criterio
+     */
+    public Optional<ResultadoBusqueda> seleccionar(Predicate<ResultadoBusqueda> criterio, int posicion) {
+        return resultados.stream().filter(criterio).skip(posicion).findFirst();
+    }
+
+    /**
+     * Resultado en la posición indicada (empezando en 0) de la página
+     */
+    public ResultadoBusqueda seleccionar(int posicion) {
+        return resultados.get(posicion);
+    }
+
+    /**
+     * Desplaza el resultado a la vista y devuelve su enlace para hacer clic
+     */
+    public WebElement enlaceDe(ResultadoBusqueda resultado) {
+        if (resultado.pagina() != numero) {
+            throw new IllegalArgumentException("El resultado pertenece a la página " + resultado.pagina()
+                    + " y la página cargada es la " + numero);
+        }
+        return ExtractorResultados.prepararEnlace(driver, SELECTOR_RESULTADOS, resultado.indice());
+    }
+
+    /**
+     * Carga la página siguiente con una sola navegación, o vacío si es la última
+     */
+    public Optional<PaginaResultados> siguiente() {
+        String href = (String) ((JavascriptExecutor) driver).executeScript(
+                "var s = document.querySelector('a.s-pagination-next');"
+                        + "return s && !s.classList.contains('s-pagination-disabled') ? s.href : null;");
+        if (href == null) {
+            return Optional.empty();
+        }
+        driver.get(href);
+        // La espera se construye sobre el navegador de esta página, no sobre el del hilo que la recorre
+        new EsperaMedida(driver, ESPERA_RESULTADOS, "resultados")
+                .until(ExpectedConditions.presenceOfElementLocated(By.cssSelector(SELECTOR_RESULTADOS)));
+        return Optional.of(leer(driver, numero + 1));
+    }
+}
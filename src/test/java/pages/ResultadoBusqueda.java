@@ -0,0 +1,26 @@
+package pages;
+// Record ResultadoBusqueda: datos inmutables de un resultado de búsqueda leídos del DOM en una sola llamada
+
+/**
+ * @param pagina       número de la página de resultados (empezando en 1)
+ * @param indice       posición del resultado en la página (empezando en 0)
+ * @param asin         identificador de producto de Amazon (data-asin), o null si no tiene
+ * @param titulo       título del producto, o aria-label si no tiene título visible
+ * @param enlace       href del enlace principal, o null si no tiene
+ * @param precio       precio mostrado, o null si el resultado no tiene precio
+ * @param calificacion estrellas (0 a 5), o null si no tiene calificaciones
+ * @param visible      el resultado ocupa espacio y no está oculto
+ * @param patrocinado  el resultado es un anuncio patrocinado
+ * @param conTitulo    el resultado tiene un elemento de título (h2 o .a-text-normal)
+ */
+public record ResultadoBusqueda(int pagina, int indice, String asin, String titulo, String enlace,
+                                Double precio, Double calificacion, boolean visible,
+                                boolean patrocinado, boolean conTitulo) {
+
+    /**
+     * Un producto real tiene enlace y título (mismo criterio que usaba seleccionarTercerItem)
+     */
+    public boolean esProductoReal() {
+        return enlace != null && conTitulo;
+    }
+}
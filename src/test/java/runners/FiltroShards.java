@@ -0,0 +1,128 @@
+package runners;
+// Clase FiltroShards: reparte los escenarios (y cada fila de Ejemplos) entre varios shards con
+// -Dshard.total=N -Dshard.indice=1..N, para dividir la suite entre trabajos de CI o JVM.
+// El reparto es determinista y equilibra la duración histórica de cada escenario, no la cantidad.
+// Se registra en META-INF/services, así que JUnit Platform lo aplica a cualquier ejecución.
+
+import org.junit.platform.engine.FilterResult;
+import org.junit.platform.engine.TestDescriptor;
+import org.junit.platform.engine.TestSource;
+import org.junit.platform.engine.support.descriptor.ClasspathResourceSource;
+import org.junit.platform.engine.support.descriptor.FilePosition;
+import org.junit.platform.engine.support.descriptor.FileSource;
+import org.junit.platform.launcher.PostDiscoveryFilter;
+import utilidades.IdEscenario;
+import utilidades.TiemposEscenarios;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class FiltroShards implements PostDiscoveryFilter {
+
+    private static final int TOTAL = Integer.getInteger("shard.total", 1);
+    private static final int INDICE = Integer.getInteger("shard.indice", 1);
+
+    // Shard asignado a cada escenario. Se calcula una vez con todos los escenarios a la vista y se reutiliza
+    // si el filtro se aplica otra vez sobre un árbol ya filtrado (por ejemplo dentro de la suite)
+    private static final Map<String, Integer> asignados = new ConcurrentHashMap<>();
+
+    @Override
+    public FilterResult apply(TestDescriptor descriptor) {
+        if (TOTAL <= 1 || !descriptor.isTest()) {
+            return FilterResult.included("Sin shards");
+        }
+        if (INDICE < 1 || INDICE > TOTAL) {
+            throw new IllegalArgumentException("shard.indice debe estar entre 1 y " + TOTAL + ": " + INDICE);
+        }
+        String id = id(descriptor);
+        if (!asignados.containsKey(id)) {
+            repartir(raiz(descriptor));
+        }
+        int shard = asignados.get(id);
+        return shard == INDICE
+                ? FilterResult.included("Shard " + shard + "/" + TOTAL)
+                : FilterResult.excluded("Pertenece al shard " + shard + "/" + TOTAL);
+    }
+
+    /**
+     * Reparto del escenario más largo al más corto, cada uno al shard con menos tiempo acumulado (LPT).
+     * Los escenarios sin historial cuentan con la mediana de los conocidos, o 1 si no hay ninguno;
+     * los empates se resuelven por identificador y por número de shard para que todos los shards coincidan.
+     * El historial es la foto del archivo de tiempos al empezar, que ningún shard modifica durante la ejecución.
+     */
+    private static synchronized void repartir(TestDescriptor raiz) {
+        List<String> ids = new ArrayList<>();
+        recoger(raiz, ids);
+        ids.removeIf(asignados::containsKey);
+        if (ids.isEmpty()) {
+            return;
+        }
+        Map<String, Long> historial = TiemposEscenarios.leer();
+        long porDefecto = mediana(ids.stream().filter(historial::containsKey).map(historial::get).toList());
+        ids.sort(Comparator.<String>comparingLong(id -> historial.getOrDefault(id, porDefecto)).reversed()
+                .thenComparing(Comparator.naturalOrder()));
+
+        long[] cargas = new long[TOTAL];
+        for (String id : ids) {
+            int menor = 0;
+            for (int i = 1; i < TOTAL; i++) {
+                if (cargas[i] < cargas[menor]) {
+                    menor = i;
+                }
+            }
+            cargas[menor] += historial.getOrDefault(id, porDefecto);
+            asignados.put(id, menor + 1);
+        }
+        System.out.println("Shard " + INDICE + "/" + TOTAL + ": " + ids.stream().filter(id -> asignados.get(id) == INDICE)
+                .count() + " de " + ids.size() + " escenarios, " + cargas[INDICE - 1] + " ms estimados"
+                + (historial.isEmpty() ? " (sin historial de tiempos: reparto por cantidad)" : ""));
+    }
+
+    private static void recoger(TestDescriptor descriptor, List<String> ids) {
+        if (descriptor.isTest()) {
+            ids.add(id(descriptor));
+        }
+        descriptor.getChildren().forEach(hijo -> recoger(hijo, ids));
+    }
+
+    private static TestDescriptor raiz(TestDescriptor descriptor) {
+        TestDescriptor raiz = descriptor;
+        while (raiz.getParent().isPresent()) {
+            raiz = raiz.getParent().get();
+        }
+        return raiz;
+    }
+
+    private static long mediana(List<Long> tiempos) {
+        if (tiempos.isEmpty()) {
+            return 1;
+        }
+        List<Long> ordenados = tiempos.stream().sorted().toList();
+        return ordenados.get(ordenados.size() / 2);
+    }
+
+    /**
+     * Identificador del escenario como ruta del .feature y línea (IdEscenario, el mismo que usan el archivo de
+     * tiempos y la cuarentena);
+     * si el motor no da la ubicación, el identificador único de JUnit
+     */
+    static String id(TestDescriptor descriptor) {
+        TestSource fuente = descriptor.getSource().orElse(null);
+        String archivo = null;
+        FilePosition posicion = null;
+        if (fuente instanceof ClasspathResourceSource recurso) {
+            archivo = recurso.getClasspathResourceName();
+            posicion = recurso.getPosition().orElse(null);
+        } else if (fuente instanceof FileSource origen) {
+            archivo = origen.getFile().getPath();
+            posicion = origen.getPosition().orElse(null);
+        }
+        if (archivo == null || posicion == null) {
+            return descriptor.getUniqueId().toString();
+        }
+        return IdEscenario.de(archivo, posicion.getLine());
+    }
+}
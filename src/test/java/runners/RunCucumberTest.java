@@ -1,15 +1,17 @@
 package runners;  // Define el paquete "runners" donde se encuentra esta clase.
 // Clase RunCucumberTest: punto de entrada centralizado para la ejecución de pruebas
 
-import io.cucumber.junit.Cucumber;
-import io.cucumber.junit.CucumberOptions;
-import org.junit.runner.RunWith;
+import org.junit.platform.suite.api.ConfigurationParameter;
+import org.junit.platform.suite.api.IncludeEngines;
+import org.junit.platform.suite.api.SelectClasspathResource;
+import org.junit.platform.suite.api.Suite;
 
-@RunWith(Cucumber.class)  // Le indica a JUnit que ejecute esta clase usando Cucumber como el ejecutor de las pruebas.
-@CucumberOptions(  // Inicia la configuración de las opciones de Cucumber.
-        features = "src/test/resources/features",  // Especifica la ubicación de los archivos ".feature" que contienen los escenarios de prueba.
-        glue = {"steps", "utilidades"},  // Indica los paquetes donde se encuentran las implementaciones de los pasos (steps) y utilidades necesarias para las pruebas.
-        plugin = {"pretty"}  // Activa el plugin "pretty" para generar una salida más legible en la consola durante la ejecución de las pruebas.
-)
+import static io.cucumber.junit.platform.engine.Constants.GLUE_PROPERTY_NAME;
+
+@Suite  // Le indica a JUnit Platform que esta clase es una suite de pruebas.
+@IncludeEngines("cucumber")  // Ejecuta la suite con el motor de Cucumber, que permite paralelismo por escenario.
+@SelectClasspathResource("features")  // Especifica la ubicación de los archivos ".feature" (src/test/resources/features).
+@ConfigurationParameter(key = GLUE_PROPERTY_NAME, value = "steps,utilidades")  // Indica los paquetes donde se encuentran las implementaciones de los pasos (steps) y utilidades necesarias para las pruebas.
+// Los plugins (pretty, ReporteEnVivo, MetricasPasos) y el paralelismo se configuran en junit-platform.properties.
 public class RunCucumberTest {  // Define la clase pública "RunCucumberTest", que se usará para ejecutar las pruebas.
 }
@@ -1,33 +1,64 @@
 package steps;
 // Clase PasosAmazon: define la lógica de automatización para cada paso del escenario
 
-import com.aventstack.extentreports.ExtentTest;
 import io.cucumber.java.After;
+import io.cucumber.java.AfterAll;
 import io.cucumber.java.Before;
+import io.cucumber.java.BeforeAll;
 import io.cucumber.java.Scenario;
 import io.cucumber.java.es.*;
 import org.openqa.selenium.OutputType;
+import org.openqa.selenium.StaleElementReferenceException;
 import org.openqa.selenium.TakesScreenshot;
 import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
 import pages.PaginaAmazon;
 import utilidades.AgregarAlCarritoException;
+import utilidades.AlmacenCapturas;
+import utilidades.Cuarentena;
 import utilidades.Driver;
+import utilidades.EfectosPaso;
+import utilidades.GridLocal;
+import utilidades.Metricas;
+import utilidades.ModoNavegacion;
+import utilidades.PerfilComandos;
+import utilidades.PoliticaCapturas;
 import utilidades.Reporte;
+import utilidades.ServidorFixtures;
 
 public class PasosAmazon {
 
     private WebDriver driver;
     private PaginaAmazon page;
-    private ExtentTest test;
+    private Reporte.Prueba test;
     private Scenario scenario;
+    private final PoliticaCapturas politica = PoliticaCapturas.actual();
+    private boolean hayCaptura; // Ya se tomó al menos una captura en este escenario
+
+    @BeforeAll
+    public static void iniciarFixtures() {
+        // Con -Dfixtures=true las páginas se sirven desde un servidor local en lugar de amazon.com
+        if (Boolean.getBoolean("fixtures")) {
+            ServidorFixtures.iniciar();
+        }
+        // Con -Dgrid.local=true los navegadores se piden a un Grid arrancado en esta máquina
+        if (Boolean.getBoolean("grid.local")) {
+            GridLocal.iniciar();
+        }
+    }
 
     @Before
     public void setUp(Scenario scenario) {
         this.scenario = scenario;
+        // Los escenarios en cuarentena se omiten antes de ocupar un navegador del pool
+        Cuarentena.comprobar(scenario);
+        // Cuenta y cronometra los comandos de WebDriver que envía este escenario
+        PerfilComandos.iniciar(scenario.getName());
         // Inicializa el driver antes de cada escenario
         driver = Driver.getDriver();
         // Crea la instancia de la página de Amazon
-        page = new PaginaAmazon();
+        // La etiqueta @ui obliga a recorrer la interfaz; si no, se usa -Dnavegacion (por defecto URL directa)
+        page = new PaginaAmazon(ModoNavegacion.para(scenario.getSourceTagNames()));
         // Crea un test en ExtentReports con el nombre del escenario
         test = Reporte.createTest("Prueba Amazon: " + scenario.getName());
 
@@ -41,16 +72,14 @@ public class PasosAmazon {
             // Intenta abrir la página de Amazon y maneja posibles errores
             page.abrirHome();
             // Registra el éxito en los reportes
-            Reporte.logPass(test, "Home de Amazon abierta correctamente", takeScreenshot());
+            registrarExito("Home de Amazon abierta correctamente", false);
             // También registra en el reporte de Cucumber
             scenario.log("Home de Amazon abierta correctamente");
         } catch (Exception e) {
             // Registra el error en los reportes
             String mensaje = "Error al abrir la página de Amazon: " + e.getMessage();
-            Reporte.logFail(test, mensaje, takeScreenshot());
+            registrarFallo(mensaje, false, "Error en abrirAmazon");
             scenario.log(mensaje);
-            scenario.attach(((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES),
-                    "image/png", "Error en abrirAmazon");
             // Relanza la excepción para que Cucumber sepa que el paso falló
             throw e;
         }
@@ -62,15 +91,13 @@ public class PasosAmazon {
             // Intenta buscar el producto
             page.buscar(producto);
             // Registra el éxito
-            Reporte.logPass(test, "Buscado: " + producto, takeScreenshot());
+            registrarExito("Buscado: " + producto, false);
             scenario.log("Búsqueda exitosa: " + producto);
         } catch (Exception e) {
             // Registra el error
             String mensaje = "Error al buscar " + producto + ": " + e.getMessage();
-            Reporte.logFail(test, mensaje, takeScreenshot());
+            registrarFallo(mensaje, false, "Error en buscaArticulo");
             scenario.log(mensaje);
-            scenario.attach(((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES),
-                    "image/png", "Error en buscaArticulo");
             throw e;
         }
     }
@@ -81,15 +108,13 @@ public class PasosAmazon {
             // Intenta navegar a la página 2
             page.irAPagina2();
             // Registra el éxito
-            Reporte.logPass(test, "Navegación a página 2 exitosa", takeScreenshot());
+            registrarExito("Navegación a página 2 exitosa", false);
             scenario.log("Navegación a página 2 exitosa");
         } catch (Exception e) {
             // Registra el error
             String mensaje = "Error al navegar a la página 2: " + e.getMessage();
-            Reporte.logFail(test, mensaje, takeScreenshot());
+            registrarFallo(mensaje, false, "Error en pagina2");
             scenario.log(mensaje);
-            scenario.attach(((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES),
-                    "image/png", "Error en pagina2");
             throw e;
         }
     }
@@ -100,15 +125,13 @@ public class PasosAmazon {
             // Intenta seleccionar el tercer producto
             page.seleccionarTercerItem();
             // Registra el éxito
-            Reporte.logPass(test, "Tercer ítem seleccionado", takeScreenshot());
+            registrarExito("Tercer ítem seleccionado", false);
             scenario.log("Tercer ítem seleccionado exitosamente");
         } catch (Exception e) {
             // Registra el error
             String mensaje = "Error al seleccionar el tercer ítem: " + e.getMessage();
-            Reporte.logFail(test, mensaje, takeScreenshot());
+            registrarFallo(mensaje, false, "Error en seleccionarTercer");
             scenario.log(mensaje);
-            scenario.attach(((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES),
-                    "image/png", "Error en seleccionarTercer");
             throw e;
         }
     }
@@ -119,49 +142,148 @@ public class PasosAmazon {
             // Intenta agregar al carrito dos unidades
             page.agregarAlCarrito(2);
             // Registra el éxito solo si llegamos aquí (sin excepciones)
-            Reporte.logPass(test, "Producto agregado al carrito exitosamente", takeScreenshot());
+            registrarExito("Producto agregado al carrito exitosamente", false);
             scenario.log("Producto agregado al carrito exitosamente");
         } catch (AgregarAlCarritoException e) {
             // Registra el error específico de agregar al carrito
             String mensaje = "Error al agregar al carrito: " + e.getMessage();
-            Reporte.logFail(test, mensaje, takeScreenshot());
+            registrarFallo(mensaje, false, "Error en agregaCarrito");
             scenario.log(mensaje);
-            scenario.attach(((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES),
-                    "image/png", "Error en agregaCarrito");
             throw new RuntimeException(e); // Propagar como RuntimeException para Cucumber
         } catch (Exception e) {
             // Registra otros errores inesperados
             String mensaje = "Error inesperado: " + e.getMessage();
-            Reporte.logFail(test, mensaje, takeScreenshot());
+            registrarFallo(mensaje, false, "Error inesperado en agregaCarrito");
             scenario.log(mensaje);
-            scenario.attach(((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES),
-                    "image/png", "Error inesperado en agregaCarrito");
             throw e;
         }
     }
 
     @After
     public void tearDown(Scenario scenario) {
+        if (test == null) {
+            // El escenario no llegó a empezar (en cuarentena, o sin navegador porque el pool o la sesión fallaron):
+            // no se deja en el hilo nada que herede el siguiente escenario
+            PerfilComandos.descartar();
+            EfectosPaso.terminarEscenario();
+            Driver.quitDriver();
+            return;
+        }
         // Registra el resultado final del escenario
         if (scenario.isFailed()) {
-            Reporte.logFail(test, "Escenario fallido: " + scenario.getName(), takeScreenshot());
+            registrarFallo("Escenario fallido: " + scenario.getName(), true, null);
+        } else {
+            registrarExito("Escenario exitoso: " + scenario.getName(), true);
+        }
+
+        // Perfil de comandos del escenario: cuántos round trips hizo, cuánto tardaron y qué búsquedas se repitieron
+        PerfilComandos perfil = PerfilComandos.terminar();
+        if (perfil != null) {
+            String resumen = perfil.resumen();
+            EfectosPaso.ejecutar(() -> Reporte.logInfo(test, "<pre>" + resumen.replace("<", "&lt;") + "</pre>", null));
+            scenario.log(resumen);
+        }
+
+        // Un fallo seguido de un éxito en el reintento cuenta para la cuarentena
+        Cuarentena.registrar(scenario);
+
+        if (scenario.isFailed()) {
+            // El navegador de un escenario fallido se descarta: el reintento empieza con una sesión nueva
+            Driver.quitDriver();
         } else {
-            Reporte.logPass(test, "Escenario exitoso: " + scenario.getName(), takeScreenshot());
+            // Devuelve el navegador al pool, limpio para el siguiente escenario
+            Driver.liberarDriver();
         }
 
-        // Cierra el WebDriver después de finalizar el escenario
-        Driver.quitDriver();
+        // Barrera: el navegador ya está libre y el escenario no termina hasta que sus capturas y mensajes
+        // estén escritos en los reportes
+        EfectosPaso.esperar();
     }
 
-    private String takeScreenshot() {
+    @AfterAll
+    public static void cerrarNavegadores() {
+        // Cierra los navegadores de todos los hilos al terminar la ejecución
+        Driver.cerrarTodos();
+        ServidorFixtures.detener();
+        GridLocal.detener();
+        Cuarentena.guardar();
+        // Escribe en disco lo que alguna barrera de escenario dejó pendiente por tiempo
+        EfectosPaso.esperarTodos();
+        AlmacenCapturas.esperarEscrituras();
+        Reporte.flush();
+    }
+
+    /**
+     * Registra un paso correcto en ExtentReports. La captura se toma en el hilo del escenario porque es tiempo
+     * de navegador; el hash, el guardado y la actualización del reporte se hacen en EfectosPaso
+     */
+    private void registrarExito(String mensaje, boolean ultima) {
+        byte[] captura = capturar(false, ultima);
+        EfectosPaso.ejecutar(() -> Reporte.logPass(test, mensaje, guardarCaptura(captura)));
+    }
+
+    /**
+     * Registra un fallo en ExtentReports igual que registrarExito y, si se indica un nombre, adjunta al reporte de
+     * Cucumber un enlace a la misma captura. El adjunto también va en el efecto: la ruta sale del hash de la imagen,
+     * y la barrera de tearDown garantiza que llega antes de que termine el escenario
+     *
+     * @param ultima  es la captura de cierre del escenario
+     * @param adjunto nombre del adjunto de Cucumber, o null para no adjuntarla
+     */
+    private void registrarFallo(String mensaje, boolean ultima, String adjunto) {
+        byte[] captura = capturar(true, ultima);
+        EfectosPaso.ejecutar(() -> {
+            String ruta = guardarCaptura(captura);
+            Reporte.logFail(test, mensaje, ruta);
+            if (ruta != null && adjunto != null) {
+                scenario.attach(ruta, "text/uri-list", adjunto);
+            }
+        });
+    }
+
+    /**
+     * Guarda la captura y espera a que esté en disco; se llama desde los efectos, nunca desde el hilo del escenario
+     *
+     * @return ruta relativa de la captura, o null si no se tomó
+     */
+    private static String guardarCaptura(byte[] captura) {
+        if (captura == null) {
+            return null;
+        }
+        String ruta = AlmacenCapturas.guardar(captura);
+        AlmacenCapturas.esperar(ruta);
+        return ruta;
+    }
+
+    /**
+     * Captura la pantalla (o el último elemento usado) si la política lo requiere
+     *
+     * @return bytes PNG de la captura, o null si no se tomó
+     */
+    private byte[] capturar(boolean fallo, boolean ultima) {
+        if (!politica.debeCapturar(fallo, !hayCaptura, ultima)) {
+            return null;
+        }
+        long inicio = Metricas.inicio();
         try {
-            // Captura la pantalla como array de bytes
-            byte[] bytes = ((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES);
-            // Codifica ese array a Base64 y devuelve la cadena
-            return java.util.Base64.getEncoder().encodeToString(bytes);
+            // Captura la pantalla (o solo el último elemento usado) como array de bytes
+            WebElement elemento = politica.recortaElemento() ? page.getElementoActual() : null;
+            byte[] bytes;
+            try {
+                bytes = elemento != null
+                        ? elemento.getScreenshotAs(OutputType.BYTES)
+                        : ((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES);
+            } catch (StaleElementReferenceException e) {
+                // El elemento ya no existe en la página: se usa la pantalla completa
+                bytes = ((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES);
+            }
+            hayCaptura = true;
+            return bytes;
         } catch (Exception e) {
             System.out.println("Error al tomar captura de pantalla: " + e.getMessage());
             return null;
+        } finally {
+            Metricas.registrarDesde(Metricas.CAPTURA, fallo ? "fallo" : ultima ? "cierre" : "paso", inicio);
         }
     }
 }
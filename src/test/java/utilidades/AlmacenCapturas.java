@@ -0,0 +1,179 @@
+package utilidades;
+// Clase AlmacenCapturas: guarda las capturas de pantalla como archivos compartidos por los reportes
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class AlmacenCapturas {
+
+    // Directorio común a reports/ExtentReports y reports/cucumber
+    private static final Path DIRECTORIO = Paths.get("reports", "capturas");
+    // Ruta de las capturas vista desde el index.html de cualquiera de los dos reportes
+    private static final String RUTA_RELATIVA = "../capturas/";
+
+    // Formato de salida (-Dcapturas.formato=jpg|png), escala (-Dcapturas.escala) y calidad JPEG (-Dcapturas.calidad)
+    private static final String FORMATO = System.getProperty("capturas.formato", "jpg").toLowerCase();
+    private static final double ESCALA = Double.parseDouble(System.getProperty("capturas.escala", "0.6"));
+    private static final float CALIDAD = Float.parseFloat(System.getProperty("capturas.calidad", "0.75"));
+
+    // Nombres ya guardados (o en cola): una captura idéntica se escribe una sola vez
+    private static final Set<String> guardadas = ConcurrentHashMap.newKeySet();
+    private static final Queue<Future<?>> escriturasPendientes = new ConcurrentLinkedQueue<>();
+    // Escritura de cada captura compartida por su ruta relativa, para esperar por una en concreto
+    private static final Map<String, Future<?>> escriturasPorRuta = new ConcurrentHashMap<>();
+
+    private static final ExecutorService escritor = Executors.newFixedThreadPool(2, r -> {
+        Thread hilo = new Thread(r, "capturas-escritor");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(AlmacenCapturas::esperarEscrituras));
+    }
+
+    /**
+     * Guarda la captura con un nombre derivado de su contenido y devuelve la ruta relativa
+     * que deben usar los reportes. El reescalado, la compresión y la escritura ocurren en segundo plano.
+     */
+    public static String guardar(byte[] png) {
+        String nombre = hash(png) + "." + FORMATO;
+        if (guardadas.add(nombre)) {
+            Path destino = DIRECTORIO.resolve(nombre);
+            Future<?> escritura = escritor.submit(() -> escribir(destino, png, true));
+            escriturasPendientes.add(escritura);
+            escriturasPorRuta.put(RUTA_RELATIVA + nombre, escritura);
+        }
+        return RUTA_RELATIVA + nombre;
+    }
+
+    /**
+     * Espera a que la captura devuelta por {@link #guardar(byte[])} esté en disco
+     */
+    public static void esperar(String ruta) {
+        Future<?> escritura = escriturasPorRuta.get(ruta);
+        if (escritura == null) {
+            return; // Ya se esperó antes: la misma imagen en otro paso
+        }
+        try {
+            escritura.get();
+            escriturasPorRuta.remove(ruta);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            escriturasPorRuta.remove(ruta);
+            System.out.println("No se pudo guardar la captura " + ruta + ": " + e.getCause().getMessage());
+        }
+    }
+
+    /**
+     * Guarda una captura de depuración con nombre propio (por ejemplo en target/screenshots),
+     * aplicando el mismo reescalado y compresión en segundo plano
+     */
+    public static void guardarComo(byte[] png, Path directorio, String nombre) {
+        Path destino = directorio.resolve(nombre + "." + FORMATO);
+        escriturasPendientes.add(escritor.submit(() -> escribir(destino, png, false)));
+    }
+
+    /**
+     * Espera a que todas las capturas encoladas estén escritas en disco
+     */
+    public static void esperarEscrituras() {
+        Future<?> pendiente;
+        while ((pendiente = escriturasPendientes.poll()) != null) {
+            try {
+                pendiente.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                System.out.println("No se pudo guardar una captura: " + e.getCause().getMessage());
+            }
+        }
+    }
+
+    private static void escribir(Path destino, byte[] png, boolean compartida) {
+        try {
+            // El archivo compartido puede existir de una ejecución anterior con la misma imagen
+            if (compartida && Files.exists(destino)) {
+                return;
+            }
+            Files.createDirectories(destino.getParent());
+            Files.write(destino, procesar(png));
+        } catch (IOException e) {
+            if (compartida) {
+                guardadas.remove(destino.getFileName().toString());
+            }
+            throw new IllegalStateException("Error escribiendo " + destino, e);
+        }
+    }
+
+    /**
+     * Reescala la imagen y la codifica en el formato configurado
+     */
+    private static byte[] procesar(byte[] png) throws IOException {
+        if ("png".equals(FORMATO) && ESCALA >= 1.0) {
+            return png; // Sin transformación: se guarda tal cual
+        }
+        BufferedImage original = ImageIO.read(new ByteArrayInputStream(png));
+        int ancho = Math.max(1, (int) Math.round(original.getWidth() * Math.min(ESCALA, 1.0)));
+        int alto = Math.max(1, (int) Math.round(original.getHeight() * Math.min(ESCALA, 1.0)));
+
+        // JPEG no admite transparencia, por eso se dibuja sobre una imagen RGB
+        BufferedImage reducida = new BufferedImage(ancho, alto, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = reducida.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.drawImage(original, 0, 0, ancho, alto, null);
+        g.dispose();
+
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        if ("png".equals(FORMATO)) {
+            ImageIO.write(reducida, "png", salida);
+            return salida.toByteArray();
+        }
+
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam parametros = writer.getDefaultWriteParam();
+        parametros.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        parametros.setCompressionQuality(CALIDAD);
+        try (ImageOutputStream stream = ImageIO.createImageOutputStream(salida)) {
+            writer.setOutput(stream);
+            writer.write(null, new IIOImage(reducida, null, null), parametros);
+        } finally {
+            writer.dispose();
+        }
+        return salida.toByteArray();
+    }
+
+    private static String hash(byte[] datos) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(datos));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+}
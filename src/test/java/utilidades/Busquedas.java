@@ -0,0 +1,85 @@
+package utilidades;
+// Clase Busquedas: búsquedas de elementos sin espera implícita. Comprobar si algo está presente
+// cuesta un solo comando; esperar a que aparezca sondea con un intervalo que crece hasta un máximo
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.WebElement;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+public class Busquedas {
+
+    // Primer intervalo entre sondeos (-Dbusqueda.intervaloMs)
+    private static final long INTERVALO_MS = Long.getLong("busqueda.intervaloMs", 50L);
+    // Factor por el que crece el intervalo en cada sondeo sin resultado (-Dbusqueda.factor)
+    private static final double FACTOR = Double.parseDouble(System.getProperty("busqueda.factor", "1.5"));
+    // Intervalo máximo entre sondeos (-Dbusqueda.intervaloMaximoMs)
+    private static final long INTERVALO_MAXIMO_MS = Long.getLong("busqueda.intervaloMaximoMs", 400L);
+
+    /**
+     * Resultado de una carrera entre selectores: cuál coincidió primero y con qué elementos
+     */
+    public record Coincidencia(int indice, By selector, List<WebElement> elementos) {
+        public WebElement primero() {
+            return elementos.get(0);
+        }
+    }
+
+    /**
+     * Elementos que coinciden ahora mismo, sin esperar
+     */
+    public static List<WebElement> todos(SearchContext contexto, By selector) {
+        return contexto.findElements(selector);
+    }
+
+    /**
+     * Primer elemento que coincide ahora mismo, o vacío sin esperar
+     */
+    public static Optional<WebElement> presente(SearchContext contexto, By selector) {
+        List<WebElement> elementos = contexto.findElements(selector);
+        return elementos.isEmpty() ? Optional.empty() : Optional.of(elementos.get(0));
+    }
+
+    /**
+     * Espera como mucho maximo a que aparezca el selector; vacío si no aparece
+     */
+    public static Optional<WebElement> aparece(SearchContext contexto, By selector, Duration maximo) {
+        return primero(contexto, maximo, selector).map(Coincidencia::primero);
+    }
+
+    /**
+     * Carrera entre selectores: en cada sondeo se prueban en orden y gana el primero que tenga coincidencias.
+     * Vacío si ninguno aparece antes de maximo.
+     */
+    public static Optional<Coincidencia> primero(SearchContext contexto, Duration maximo, By... selectores) {
+        long inicio = Metricas.inicio();
+        long limite = System.nanoTime() + maximo.toNanos();
+        long intervalo = INTERVALO_MS;
+        PerfilComandos.entrarEspera(); // Repetir las búsquedas al sondear no es redundancia
+        try {
+            while (true) {
+                for (int i = 0; i < selectores.length; i++) {
+                    List<WebElement> elementos = contexto.findElements(selectores[i]);
+                    if (!elementos.isEmpty()) {
+                        return Optional.of(new Coincidencia(i, selectores[i], elementos));
+                    }
+                }
+                long restante = limite - System.nanoTime();
+                if (restante <= 0) {
+                    return Optional.empty();
+                }
+                Thread.sleep(Math.min(intervalo, Math.max(1, restante / 1_000_000)));
+                intervalo = Math.min(INTERVALO_MAXIMO_MS, (long) (intervalo * FACTOR));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Optional.empty();
+        } finally {
+            PerfilComandos.salirEspera();
+            Metricas.registrarDesde(Metricas.ESPERA, "busqueda", inicio);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package utilidades;
+// Clase Cuarentena: aparta los escenarios inestables. Un escenario queda en cuarentena si tiene la etiqueta
+// @cuarentena, si aparece en cuarentena.txt o si ha sido intermitente (falló y pasó al reintentarlo en la misma
+// ejecución) en varias ejecuciones. Los escenarios en cuarentena se omiten salvo con -Dcuarentena.ejecutar=true
+
+import io.cucumber.java.Scenario;
+import org.opentest4j.TestAbortedException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+public class Cuarentena {
+
+    // Lista mantenida a mano: un escenario por línea, por nombre o por ruta:línea (ruta del .feature bajo features/); # para comentarios
+    private static final Path ARCHIVO = Paths.get(System.getProperty("cuarentena.archivo", "cuarentena.txt"));
+    // Historial de ejecuciones intermitentes por escenario (-Dcuarentena.historial)
+    private static final Path HISTORIAL = Paths.get(System.getProperty("cuarentena.historial",
+            "reports/historial-intermitentes.properties"));
+    // Ejecuciones intermitentes a partir de las cuales el escenario entra solo en cuarentena
+    private static final int UMBRAL = Integer.getInteger("cuarentena.umbral", 3);
+    // true para ejecutar también los escenarios en cuarentena
+    private static final boolean EJECUTAR = Boolean.getBoolean("cuarentena.ejecutar");
+
+    private static final Set<String> lista = leerLista();
+    private static final Map<String, Integer> intermitencias = leerHistorial();
+    // Escenarios que ya fallaron en esta ejecución; si después pasan en un reintento fueron intermitentes
+    private static final Set<String> fallidos = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Omite el escenario (queda como "skipped") si está en cuarentena y no se pidió ejecutarlos
+     */
+    public static void comprobar(Scenario scenario) {
+        String motivo = motivo(scenario);
+        if (motivo == null) {
+            return;
+        }
+        if (EJECUTAR) {
+            System.out.println("Escenario en cuarentena (" + motivo + "), se ejecuta por -Dcuarentena.ejecutar: "
+                    + scenario.getName());
+            return;
+        }
+        throw new TestAbortedException("Escenario en cuarentena (" + motivo + "): " + id(scenario));
+    }
+
+    /**
+     * Anota el resultado del escenario. Un fallo seguido de un éxito en la misma ejecución suma una intermitencia.
+     */
+    public static void registrar(Scenario scenario) {
+        String id = id(scenario);
+        if (scenario.isFailed()) {
+            fallidos.add(id);
+        } else if (fallidos.remove(id)) {
+            int veces = intermitencias.merge(id, 1, Integer::sum);
+            System.out.println("Escenario intermitente (" + veces + "/" + UMBRAL + "): " + id);
+        }
+    }
+
+    /**
+     * Guarda el historial de intermitencias para las próximas ejecuciones
+     */
+    public static synchronized void guardar() {
+        if (intermitencias.isEmpty()) {
+            return;
+        }
+        Properties propiedades = new Properties();
+        intermitencias.forEach((id, veces) -> propiedades.setProperty(id, String.valueOf(veces)));
+        try {
+            Files.createDirectories(HISTORIAL.toAbsolutePath().getParent());
+            try (Writer writer = Files.newBufferedWriter(HISTORIAL)) {
+                propiedades.store(writer, "Ejecuciones en las que el escenario falló y pasó al reintentarlo");
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo guardar el historial de cuarentena", e);
+        }
+    }
+
+    private static String motivo(Scenario scenario) {
+        String id = id(scenario);
+        if (scenario.getSourceTagNames().contains("@cuarentena")) {
+            return "etiqueta @cuarentena";
+        }
+        if (lista.contains(id) || lista.contains(scenario.getName())) {
+            return ARCHIVO.toString();
+        }
+        if (intermitencias.getOrDefault(id, 0) >= UMBRAL) {
+            return "intermitente en " + intermitencias.get(id) + " ejecuciones";
+        }
+        return null;
+    }
+
+    /**
+     * Identificador estable del escenario: ruta del .feature y línea, que distingue las filas de un esquema
+     */
+    static String id(Scenario scenario) {
+        return IdEscenario.de(scenario.getUri().toString(), scenario.getLine());
+    }
+
+    private static Set<String> leerLista() {
+        if (!Files.exists(ARCHIVO)) {
+            return Set.of();
+        }
+        try {
+            return Files.readAllLines(ARCHIVO).stream()
+                    .map(String::trim)
+                    .filter(linea -> !linea.isEmpty() && !linea.startsWith("#"))
+                    .collect(Collectors.toUnmodifiableSet());
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer " + ARCHIVO, e);
+        }
+    }
+
+    private static Map<String, Integer> leerHistorial() {
+        Map<String, Integer> historial = new ConcurrentHashMap<>();
+        if (Files.exists(HISTORIAL)) {
+            Properties propiedades = new Properties();
+            try (Reader reader = Files.newBufferedReader(HISTORIAL)) {
+                propiedades.load(reader);
+            } catch (IOException e) {
+                System.out.println("No se pudo leer el historial de cuarentena: " + e.getMessage());
+            }
+            propiedades.forEach((id, veces) -> historial.put((String) id, Integer.parseInt((String) veces)));
+        }
+        return historial;
+    }
+
+    /**
+     * Escenarios que han entrado solos en cuarentena por intermitentes, para el resumen de la ejecución
+     */
+    public static Map<String, Integer> intermitentes() {
+        return new TreeMap<>(intermitencias.entrySet().stream()
+                .filter(e -> e.getValue() >= UMBRAL)
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)));
+    }
+}
@@ -0,0 +1,96 @@
+package utilidades;
+// Clase EfectosPaso: ejecuta en hilos virtuales el trabajo de los pasos que no usa el navegador (guardar capturas,
+// actualizar el reporte), en orden dentro de cada escenario, para que la duración del paso sea solo tiempo de
+// navegador. Al final del escenario esperar() hace de barrera: sus capturas están en disco y sus mensajes en el
+// HTML del reporte antes de que empiece el siguiente
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+public class EfectosPaso {
+
+    // Tiempo máximo que el final del escenario o de la ejecución espera por los efectos pendientes
+    // (-Defectos.esperaMaximaMs)
+    private static final long ESPERA_MAXIMA_MS = Long.getLong("efectos.esperaMaximaMs", 30_000L);
+
+    // Un hilo virtual por efecto: son baratos y casi todo su tiempo es E/S o espera de otros hilos
+    private static final ExecutorService hilos = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("efectos-paso-", 0).factory());
+
+    // Último efecto encolado por el escenario del hilo actual; cada efecto nuevo se encadena detrás
+    private static final ThreadLocal<CompletableFuture<Void>> cadena =
+            ThreadLocal.withInitial(() -> CompletableFuture.completedFuture(null));
+
+    // Efectos de todos los hilos que aún no terminaron
+    private static final Set<CompletableFuture<Void>> pendientes = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Encola un efecto del escenario actual; se ejecuta después de los que el escenario encoló antes
+     */
+    public static void ejecutar(Runnable efecto) {
+        CompletableFuture<Void> siguiente = cadena.get()
+                .thenRunAsync(efecto, hilos)
+                .exceptionally(e -> {
+                    // Un efecto fallido no detiene a los siguientes ni hace fallar el paso
+                    Throwable causa = e.getCause() != null ? e.getCause() : e;
+                    System.out.println("Error en un efecto del paso: " + causa.getMessage());
+                    return null;
+                });
+        pendientes.add(siguiente);
+        siguiente.whenComplete((resultado, error) -> pendientes.remove(siguiente));
+        cadena.set(siguiente);
+    }
+
+    /**
+     * Barrera de fin de escenario: espera a los efectos encolados desde este hilo (cada uno espera la escritura
+     * de su captura) y al volcado del reporte con sus mensajes. El hilo empieza una cadena nueva para el siguiente
+     */
+    public static void esperar() {
+        CompletableFuture<Void> pendiente = cadena.get();
+        cadena.remove();
+        long inicio = Metricas.inicio();
+        long limite = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ESPERA_MAXIMA_MS);
+        try {
+            pendiente.get(ESPERA_MAXIMA_MS, TimeUnit.MILLISECONDS);
+            Reporte.volcar().get(Math.max(0, limite - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            System.out.println("Error en los efectos del escenario: " + e.getCause().getMessage());
+        } catch (TimeoutException e) {
+            System.out.println("Los efectos del escenario no terminaron en " + ESPERA_MAXIMA_MS + " ms; se continúa");
+        } finally {
+            Metricas.registrarDesde(Metricas.ESPERA, "efectosPaso", inicio);
+        }
+    }
+
+    /**
+     * Fin de escenario sin barrera, para el que no llegó a empezar: el hilo empieza una cadena nueva
+     */
+    public static void terminarEscenario() {
+        cadena.remove();
+    }
+
+    /**
+     * Fin de la ejecución: espera a los efectos que alguna barrera dejó atrás antes de volcar capturas y reporte
+     */
+    public static void esperarTodos() {
+        try {
+            CompletableFuture.allOf(pendientes.toArray(new CompletableFuture<?>[0]))
+                    .get(ESPERA_MAXIMA_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            System.out.println("Error en los efectos de los pasos: " + e.getCause().getMessage());
+        } catch (TimeoutException e) {
+            System.out.println(pendientes.size() + " efectos de los pasos no terminaron en " + ESPERA_MAXIMA_MS
+                    + " ms; se continúa");
+        }
+    }
+}
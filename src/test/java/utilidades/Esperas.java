@@ -0,0 +1,148 @@
+package utilidades;
+// Clase Esperas: reemplaza las pausas fijas por esperas basadas en condiciones de la página
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.ui.ExpectedCondition;
+
+import java.time.Duration;
+import java.util.Objects;
+
+public class Esperas {
+
+    // Ritmo de ejecución (-Dritmo): "rapido" por defecto; "humano" conserva las pausas aleatorias
+    private static final boolean RITMO_HUMANO = "humano".equalsIgnoreCase(System.getProperty("ritmo", "rapido"));
+
+    // Tiempo máximo que se espera a que la página se estabilice antes de continuar igualmente
+    private static final Duration MAXIMO_ESTABILIDAD = Duration.ofSeconds(5);
+    // Intervalo entre comprobaciones; debe ser corto para que la espera dure lo que tarda la página
+    private static final Duration INTERVALO = Duration.ofMillis(100);
+
+    public static boolean esRitmoHumano() {
+        return RITMO_HUMANO;
+    }
+
+    /**
+     * Pausa aleatoria entre minimoMs y maximoMs, solo en el perfil "humano"
+     */
+    public static void pausaHumana(long minimoMs, long maximoMs) {
+        if (!RITMO_HUMANO) {
+            return;
+        }
+        long inicio = Metricas.inicio();
+        try {
+            Thread.sleep(minimoMs + (long) (Math.random() * (maximoMs - minimoMs)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            Metricas.registrarDesde(Metricas.PAUSA, "pausaHumana", inicio);
+        }
+    }
+
+    /**
+     * Espera hasta que el documento esté cargado, el DOM deje de cambiar y no haya peticiones nuevas.
+     * Si la página no se estabiliza a tiempo se continúa: es una espera de ritmo, no una verificación.
+     */
+    public static void esperarPaginaEstable(WebDriver driver) {
+        esperarSinFallar(driver, domEstable());
+        esperarSinFallar(driver, redInactiva());
+    }
+
+    /**
+     * Espera a que el elemento termine de desplazarse hasta la vista
+     */
+    public static void esperarScroll(WebDriver driver, WebElement elemento) {
+        esperarSinFallar(driver, scrollTerminado(elemento));
+    }
+
+    /**
+     * Espera una condición con sondeo corto y sin lanzar excepción si se agota el tiempo
+     */
+    public static <T> T esperarSinFallar(WebDriver driver, ExpectedCondition<T> condicion) {
+        try {
+            return new EsperaMedida(driver, MAXIMO_ESTABILIDAD, condicion.toString())
+                    .pollingEvery(INTERVALO)
+                    .until(condicion);
+        } catch (TimeoutException e) {
+            System.out.println("La página no se estabilizó a tiempo, se continúa: " + condicion);
+            return null;
+        }
+    }
+
+    /**
+     * Documento completo y mismo número de nodos en dos comprobaciones seguidas
+     */
+    public static ExpectedCondition<Boolean> domEstable() {
+        return new CondicionEstable("DOM estable",
+                "return document.readyState === 'complete' ? document.getElementsByTagName('*').length : -1;");
+    }
+
+    /**
+     * Ningún recurso nuevo terminado entre dos comprobaciones seguidas. El buffer de la Performance API se llena
+     * con 250 entradas y deja de crecer, así que se cuentan con un PerformanceObserver instalado una vez por página
+     */
+    public static ExpectedCondition<Boolean> redInactiva() {
+        return new CondicionEstable("red inactiva",
+                "if (window.__recursosVistos === undefined) {"
+                        + " window.__recursosVistos = performance.getEntriesByType('resource').length;"
+                        + " new PerformanceObserver(function (lista) {"
+                        + " window.__recursosVistos += lista.getEntries().length; }).observe({type: 'resource'}); }"
+                        + " return window.__recursosVistos;");
+    }
+
+    /**
+     * La posición del elemento no cambia entre dos comprobaciones (el scroll terminó)
+     */
+    public static ExpectedCondition<Boolean> scrollTerminado(WebElement elemento) {
+        return new CondicionEstable("scroll terminado",
+                "var r = arguments[0].getBoundingClientRect(); return r.top + ',' + r.left;", elemento);
+    }
+
+    /**
+     * El valor del select quedó confirmado en el elemento
+     */
+    public static ExpectedCondition<Boolean> valorSeleccionado(WebElement select, String valor) {
+        return new ExpectedCondition<Boolean>() {
+            @Override
+            public Boolean apply(WebDriver driver) {
+                return valor.equals(select.getAttribute("value"));
+            }
+
+            @Override
+            public String toString() {
+                return "valor seleccionado " + valor;
+            }
+        };
+    }
+
+    /**
+     * Condición que se cumple cuando el resultado de un script se repite en dos sondeos consecutivos
+     */
+    private static class CondicionEstable implements ExpectedCondition<Boolean> {
+        private final String nombre;
+        private final String script;
+        private final Object[] argumentos;
+        private Object anterior; // Resultado del sondeo previo
+
+        CondicionEstable(String nombre, String script, Object... argumentos) {
+            this.nombre = nombre;
+            this.script = script;
+            this.argumentos = argumentos;
+        }
+
+        @Override
+        public Boolean apply(WebDriver driver) {
+            Object actual = ((JavascriptExecutor) driver).executeScript(script, argumentos);
+            boolean estable = actual != null && !Objects.equals(actual, -1L) && Objects.equals(actual, anterior);
+            anterior = actual;
+            return estable;
+        }
+
+        @Override
+        public String toString() {
+            return nombre;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package utilidades;
+// Clase GridLocal: arranca un Selenium Grid "standalone" en esta máquina como sustituto de un Grid remoto
+// (-Dgrid.local=true), en un proceso aparte con el mismo classpath, y apunta grid.urls hacia él
+
+import org.openqa.selenium.json.Json;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+public class GridLocal {
+
+    // Sesiones simultáneas del Grid local (-Dgrid.local.sesiones); por defecto una por hilo de ejecución
+    private static final int SESIONES = Integer.getInteger("grid.local.sesiones", Integer.getInteger("hilos", 1));
+    // Segundos máximos para que el Grid responda listo en /status
+    private static final int ESPERA_ARRANQUE_SEG = 60;
+    // Salida del proceso del Grid, para revisar sus errores
+    private static final Path LOG = Paths.get("target", "grid-local.log");
+
+    private static Process proceso;
+
+    /**
+     * Arranca el Grid (una sola vez por JVM) y espera a que esté listo
+     */
+    public static synchronized void iniciar() {
+        if (proceso != null) {
+            return;
+        }
+        int puerto = puertoLibre();
+        String url = "http://localhost:" + puerto;
+        Path java = Paths.get(System.getProperty("java.home"), "bin", "java");
+        try {
+            LOG.toAbsolutePath().getParent().toFile().mkdirs();
+            proceso = new ProcessBuilder(List.of(java.toString(), "-cp", System.getProperty("java.class.path"),
+                    "org.openqa.selenium.grid.Main", "standalone",
+                    "--port", String.valueOf(puerto),
+                    "--max-sessions", String.valueOf(SESIONES),
+                    "--override-max-sessions", "true",
+                    "--selenium-manager", "true"))
+                    .redirectErrorStream(true)
+                    .redirectOutput(LOG.toFile())
+                    .start();
+        } catch (IOException e) {
+            throw new IllegalStateException("No se pudo arrancar el Grid local", e);
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(GridLocal::detener));
+        esperarListo(url);
+
+        System.setProperty("grid.urls", url);
+        System.out.println("Grid local escuchando en " + url + " (" + SESIONES + " sesiones, log en " + LOG + ")");
+    }
+
+    public static synchronized void detener() {
+        if (proceso != null) {
+            proceso.destroy();
+            proceso = null;
+        }
+    }
+
+    private static void esperarListo(String url) {
+        HttpClient http = HttpClient.newHttpClient();
+        long limite = System.nanoTime() + Duration.ofSeconds(ESPERA_ARRANQUE_SEG).toNanos();
+        while (System.nanoTime() < limite) {
+            if (!proceso.isAlive()) {
+                throw new IllegalStateException("El Grid local terminó al arrancar; revisa " + LOG);
+            }
+            try {
+                HttpResponse<String> respuesta = http.send(HttpRequest.newBuilder(URI.create(url + "/status"))
+                        .timeout(Duration.ofSeconds(2)).build(), HttpResponse.BodyHandlers.ofString());
+                Map<String, Object> cuerpo = new Json().toType(respuesta.body(), Json.MAP_TYPE);
+                if (respuesta.statusCode() == 200 && cuerpo.get("value") instanceof Map<?, ?> valor
+                        && Boolean.TRUE.equals(valor.get("ready"))) {
+                    return;
+                }
+            } catch (IOException e) {
+                // Todavía no escucha
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            try {
+                Thread.sleep(500);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        detener();
+        throw new IllegalStateException("El Grid local no estuvo listo en " + ESPERA_ARRANQUE_SEG + " s; revisa " + LOG);
+    }
+
+    private static int puertoLibre() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new IllegalStateException("No hay puertos libres para el Grid local", e);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package utilidades;
+// Clase IdEscenario: identificador estable de un escenario, la ruta de su .feature relativa a la carpeta features
+// y la línea (por ejemplo carrito/buscar_producto.feature:19). Lo comparten la cuarentena, el archivo de tiempos,
+// el reparto en shards y el reporte en vivo, así que dos features con el mismo nombre en carpetas distintas no
+// se confunden
+
+public class IdEscenario {
+
+    // Carpeta raíz de los .feature en el classpath (@SelectClasspathResource de RunCucumberTest)
+    private static final String RAIZ = "features/";
+
+    /**
+     * @param uri   URI o ruta del .feature, tal como la dan Cucumber (classpath:features/...) o JUnit
+     *              (features/... o una ruta de archivo)
+     * @param linea línea del escenario o de la fila de Ejemplos
+     */
+    public static String de(String uri, int linea) {
+        return rutaRelativa(uri) + ":" + linea;
+    }
+
+    private static String rutaRelativa(String uri) {
+        String ruta = uri.replace('\\', '/');
+        if (ruta.startsWith("classpath:")) {
+            ruta = ruta.substring("classpath:".length());
+        }
+        while (ruta.startsWith("/")) {
+            ruta = ruta.substring(1);
+        }
+        if (ruta.startsWith(RAIZ)) {
+            return ruta.substring(RAIZ.length());
+        }
+        // Ruta de archivo (src/test/resources/features/... o target/test-classes/features/...)
+        int raiz = ruta.lastIndexOf("/" + RAIZ);
+        return raiz >= 0 ? ruta.substring(raiz + RAIZ.length() + 1) : ruta.substring(ruta.lastIndexOf('/') + 1);
+    }
+}
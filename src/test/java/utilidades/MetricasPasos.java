@@ -0,0 +1,71 @@
+package utilidades;
+// Clase MetricasPasos: plugin de Cucumber que registra la duración de cada paso en Metricas y, al terminar
+// la ejecución, exporta las métricas, los perfiles de comandos y los tiempos por escenario y añade el resumen
+// al reporte de ExtentReports
+
+import io.cucumber.plugin.ConcurrentEventListener;
+import io.cucumber.plugin.event.EventPublisher;
+import io.cucumber.plugin.event.PickleStepTestStep;
+import io.cucumber.plugin.event.Status;
+import io.cucumber.plugin.event.TestCaseFinished;
+import io.cucumber.plugin.event.TestRunFinished;
+import io.cucumber.plugin.event.TestStepFinished;
+
+import java.nio.file.Path;
+
+public class MetricasPasos implements ConcurrentEventListener {
+
+    @Override
+    public void setEventPublisher(EventPublisher publisher) {
+        publisher.registerHandlerFor(TestStepFinished.class, this::pasoTerminado);
+        publisher.registerHandlerFor(TestCaseFinished.class, this::escenarioTerminado);
+        publisher.registerHandlerFor(TestRunFinished.class, this::ejecucionTerminada);
+    }
+
+    private void pasoTerminado(TestStepFinished evento) {
+        // Solo los pasos de Gherkin; los hooks @Before/@After no son pasos del escenario
+        if (evento.getTestStep() instanceof PickleStepTestStep) {
+            Metricas.registrar(Metricas.PASO, metodo(evento.getTestStep().getCodeLocation()),
+                    evento.getResult().getDuration().toNanos());
+        }
+    }
+
+    private void escenarioTerminado(TestCaseFinished evento) {
+        // Los escenarios omitidos (por ejemplo en cuarentena) no dicen nada de cuánto tardan
+        if (evento.getResult().getStatus() != Status.SKIPPED) {
+            TiemposEscenarios.registrar(IdEscenario.de(evento.getTestCase().getUri().toString(),
+                    evento.getTestCase().getLocation().getLine()), evento.getResult().getDuration().toNanos());
+        }
+    }
+
+    private void ejecucionTerminada(TestRunFinished evento) {
+        TiemposEscenarios.guardar(); // Tiempos por escenario para equilibrar los shards de la próxima ejecución
+        Path directorio = Metricas.exportar();
+        PerfilComandos.exportar(directorio.resolve("comandos-por-escenario.csv"));
+        String tabla = Metricas.tabla();
+        System.out.println("=== MÉTRICAS DE LA EJECUCIÓN (" + directorio.toAbsolutePath() + ") ===");
+        System.out.print(tabla);
+        String reintentos = Reintentos.resumen();
+        Cuarentena.intermitentes().forEach((id, veces) -> System.out.println("En cuarentena por intermitente ("
+                + veces + " ejecuciones): " + id));
+        System.out.print(reintentos);
+        String recursos = FiltroRecursos.resumen();
+        System.out.print(recursos);
+        Reporte.agregarResumen("<h5>Métricas de la ejecución</h5><pre>" + tabla.replace("<", "&lt;") + "</pre>"
+                + "<h5>Reintentos</h5><pre>" + reintentos.replace("<", "&lt;") + "</pre>"
+                + "<h5>Recursos bloqueados</h5><pre>" + recursos.replace("<", "&lt;") + "</pre>");
+        Reporte.flush(); // Espera a que el resumen quede escrito antes de que termine la JVM
+    }
+
+    /**
+     * Nombre del método del paso a partir de su ubicación, por ejemplo "steps.PasosAmazon.abrirAmazon()" -> "abrirAmazon".
+     * Los pasos sin definición se agrupan como "sin definir".
+     */
+    private static String metodo(String ubicacion) {
+        if (ubicacion == null) {
+            return "sin definir";
+        }
+        String sinArgumentos = ubicacion.contains("(") ? ubicacion.substring(0, ubicacion.indexOf('(')) : ubicacion;
+        return sinArgumentos.substring(sinArgumentos.lastIndexOf('.') + 1);
+    }
+}
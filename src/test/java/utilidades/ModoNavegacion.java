@@ -0,0 +1,42 @@
+package utilidades;
+// Enum ModoNavegacion: cómo llega PaginaAmazon a los resultados de búsqueda (-Dnavegacion)
+
+import java.util.Collection;
+
+public enum ModoNavegacion {
+    URL("url"), // Construye la URL de búsqueda o de la página N y la carga con un solo driver.get
+    UI("ui");   // Escribe en la caja de búsqueda y hace clic en el paginador, como un usuario
+
+    private final String nombre;
+
+    ModoNavegacion(String nombre) {
+        this.nombre = nombre;
+    }
+
+    /**
+     * Modo configurado con -Dnavegacion; por defecto url
+     */
+    public static ModoNavegacion actual() {
+        String valor = System.getProperty("navegacion", URL.nombre);
+        for (ModoNavegacion modo : values()) {
+            if (modo.nombre.equalsIgnoreCase(valor)) {
+                return modo;
+            }
+        }
+        throw new IllegalArgumentException("Modo de navegación desconocido: " + valor);
+    }
+
+    /**
+     * Modo para un escenario: las etiquetas @ui y @url tienen prioridad sobre la propiedad del sistema,
+     * así los escenarios que prueban la interfaz la siguen recorriendo aunque el resto use URL
+     */
+    public static ModoNavegacion para(Collection<String> etiquetas) {
+        if (etiquetas.contains("@ui")) {
+            return UI;
+        }
+        if (etiquetas.contains("@url")) {
+            return URL;
+        }
+        return actual();
+    }
+}
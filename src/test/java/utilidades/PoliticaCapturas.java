@@ -0,0 +1,50 @@
+package utilidades;
+// Enum PoliticaCapturas: decide en qué pasos se toma captura de pantalla (-Dcapturas.politica)
+
+public enum PoliticaCapturas {
+    SOLO_FALLOS("solo-fallos"),           // Solo cuando un paso o el escenario fallan
+    PRIMERA_Y_ULTIMA("primera-y-ultima"), // Primer paso del escenario, cierre del escenario y fallos
+    CADA_PASO("cada-paso"),               // Todos los pasos (comportamiento original)
+    SOLO_ELEMENTO("solo-elemento");       // Todos los pasos, recortando al último elemento usado
+
+    private final String nombre;
+
+    PoliticaCapturas(String nombre) {
+        this.nombre = nombre;
+    }
+
+    /**
+     * Política configurada con -Dcapturas.politica; por defecto cada-paso
+     */
+    public static PoliticaCapturas actual() {
+        String valor = System.getProperty("capturas.politica", CADA_PASO.nombre);
+        for (PoliticaCapturas politica : values()) {
+            if (politica.nombre.equalsIgnoreCase(valor)) {
+                return politica;
+            }
+        }
+        throw new IllegalArgumentException("Política de capturas desconocida: " + valor);
+    }
+
+    /**
+     * Indica si se debe capturar el paso actual
+     *
+     * @param fallo   el paso o el escenario fallaron
+     * @param primera aún no se ha tomado ninguna captura en el escenario
+     * @param ultima  es la captura de cierre del escenario
+     */
+    public boolean debeCapturar(boolean fallo, boolean primera, boolean ultima) {
+        switch (this) {
+            case SOLO_FALLOS:
+                return fallo;
+            case PRIMERA_Y_ULTIMA:
+                return fallo || primera || ultima;
+            default:
+                return true;
+        }
+    }
+
+    public boolean recortaElemento() {
+        return this == SOLO_ELEMENTO;
+    }
+}
@@ -0,0 +1,158 @@
+package utilidades;
+// Clase Reintentos: política única de reintentos para las acciones de las páginas. Solo se reintentan los fallos
+// transitorios (elemento obsoleto, espera agotada, clic interceptado), con espera exponencial con jitter, un
+// presupuesto de intentos y de tiempo por acción y un tope global de tiempo de reintentos para toda la ejecución
+
+import org.openqa.selenium.ElementClickInterceptedException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class Reintentos {
+
+    // Espera antes del primer reintento; se duplica en cada uno (-Dreintentos.baseMs)
+    private static final long BASE_MS = Long.getLong("reintentos.baseMs", 250L);
+    // Espera máxima entre dos intentos (-Dreintentos.esperaMaximaMs)
+    private static final long ESPERA_MAXIMA_MS = Long.getLong("reintentos.esperaMaximaMs", 2000L);
+    // Tiempo total que la ejecución puede gastar en reintentos, sumando todos los hilos (-Dreintentos.totalMs)
+    private static final long TOTAL_MAXIMO_MS = Long.getLong("reintentos.totalMs", 120_000L);
+
+    // Presupuestos por defecto de las acciones conocidas; cada uno se cambia con
+    // -Dreintentos.<accion>.intentos y -Dreintentos.<accion>.maximoMs
+    private static final Map<String, Politica> POR_DEFECTO = Map.of(
+            "abrirHome", new Politica(4, Duration.ofSeconds(90)),
+            "seleccionarTercerItem", new Politica(2, Duration.ofSeconds(45)),
+            "agregarAlCarrito", new Politica(2, Duration.ofSeconds(60)));
+    private static final Politica GENERICA = new Politica(3, Duration.ofSeconds(30));
+
+    private static final AtomicLong nanosGastados = new AtomicLong(); // Intentos fallidos más esperas entre ellos
+    private static final AtomicBoolean topeAvisado = new AtomicBoolean();
+    private static final Map<String, long[]> porAccion = new ConcurrentSkipListMap<>(); // Acción -> {reintentos, agotados}
+
+    /**
+     * Intentos como máximo (incluido el primero) y tiempo máximo de la acción con todos sus reintentos
+     */
+    public record Politica(int intentos, Duration maximo) {
+
+        public static Politica de(String accion) {
+            Politica base = POR_DEFECTO.getOrDefault(accion, GENERICA);
+            return new Politica(
+                    Integer.getInteger("reintentos." + accion + ".intentos", base.intentos()),
+                    Duration.ofMillis(Long.getLong("reintentos." + accion + ".maximoMs", base.maximo().toMillis())));
+        }
+    }
+
+    /**
+     * Un intento de la acción; recibe el número de intento empezando en 1
+     */
+    @FunctionalInterface
+    public interface Intento<T, E extends Exception> {
+        T ejecutar(int numero) throws E;
+    }
+
+    /**
+     * Ejecuta la acción con la política configurada para ella
+     */
+    public static <T, E extends Exception> T ejecutar(String accion, Intento<T, E> intento) throws E {
+        return ejecutar(accion, Politica.de(accion), intento);
+    }
+
+    /**
+     * Ejecuta la acción y la repite mientras falle con un error transitorio y quede presupuesto.
+     * Cualquier otro error, o el último transitorio, se propaga tal cual.
+     */
+    public static <T, E extends Exception> T ejecutar(String accion, Politica politica, Intento<T, E> intento) throws E {
+        long limite = System.nanoTime() + politica.maximo().toNanos();
+        for (int numero = 1; ; numero++) {
+            long inicio = System.nanoTime();
+            try {
+                return intento.ejecutar(numero);
+            } catch (RuntimeException e) {
+                if (!esReintentable(e)) {
+                    throw e;
+                }
+                long espera = espera(numero);
+                if (numero >= politica.intentos() || System.nanoTime() + espera * 1_000_000 > limite
+                        || !quedaTiempoGlobal()) {
+                    contar(accion, 1);
+                    System.out.println("Reintentos agotados en " + accion + " tras " + numero + " intentos: "
+                            + e.getClass().getSimpleName());
+                    throw e;
+                }
+                System.out.println("Fallo transitorio en " + accion + " (" + e.getClass().getSimpleName()
+                        + "), reintento " + numero + "/" + (politica.intentos() - 1) + " en " + espera + " ms");
+                dormir(espera);
+                long gastado = System.nanoTime() - inicio;
+                nanosGastados.addAndGet(gastado);
+                Metricas.registrar(Metricas.REINTENTO, accion, gastado);
+                contar(accion, 0);
+            }
+        }
+    }
+
+    /**
+     * Errores que suelen desaparecer al repetir: la página cambió bajo el elemento, tardó más de lo previsto
+     * o algo tapaba el elemento. Se revisa también la causa por si llegan envueltos.
+     */
+    public static boolean esReintentable(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause() == t ? null : t.getCause()) {
+            if (t instanceof StaleElementReferenceException || t instanceof TimeoutException
+                    || t instanceof ElementClickInterceptedException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Espera exponencial con jitter: entre la mitad y el total de base * 2^(intento-1), sin pasar del máximo
+     */
+    static long espera(int numero) {
+        long exponencial = Math.min(ESPERA_MAXIMA_MS, BASE_MS << Math.min(numero - 1, 20));
+        return exponencial / 2 + ThreadLocalRandom.current().nextLong(exponencial / 2 + 1);
+    }
+
+    private static boolean quedaTiempoGlobal() {
+        if (nanosGastados.get() < TOTAL_MAXIMO_MS * 1_000_000) {
+            return true;
+        }
+        if (topeAvisado.compareAndSet(false, true)) {
+            System.out.println("Tope global de reintentos alcanzado (" + TOTAL_MAXIMO_MS + " ms): no se reintenta más");
+        }
+        return false;
+    }
+
+    private static void contar(String accion, int indice) {
+        long[] datos = porAccion.computeIfAbsent(accion, k -> new long[2]);
+        synchronized (datos) {
+            datos[indice]++;
+        }
+    }
+
+    private static void dormir(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Texto con los reintentos de cada acción y el tiempo gastado frente al tope global
+     */
+    public static String resumen() {
+        StringBuilder texto = new StringBuilder(String.format(Locale.ROOT,
+                "Tiempo en reintentos: %.1f s de %.1f s permitidos%s%n", nanosGastados.get() / 1e9,
+                TOTAL_MAXIMO_MS / 1e3, topeAvisado.get() ? " (tope alcanzado)" : ""));
+        porAccion.forEach((accion, datos) -> texto.append(String.format(Locale.ROOT,
+                "  %-24s %4d reintentos %4d agotados%n", accion, datos[0], datos[1])));
+        return texto.toString();
+    }
+}
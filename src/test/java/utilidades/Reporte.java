@@ -3,76 +3,195 @@ package utilidades;  // Declara el paquete 'utilidades' al que pertenece esta cl
 
 import com.aventstack.extentreports.ExtentReports;
 import com.aventstack.extentreports.ExtentTest;
+import com.aventstack.extentreports.MediaEntityBuilder;
+import com.aventstack.extentreports.Status;
 import com.aventstack.extentreports.reporter.ExtentSparkReporter;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Los mensajes se encolan y un único hilo escritor los aplica y vuelca el HTML por lotes,
+// así los pasos nunca esperan por la escritura en disco aunque se ejecuten en paralelo
 public class Reporte {  // Define la clase pública 'Reporte'
 
     private static ExtentReports extent;  // Declara una variable estática privada para la instancia de ExtentReports
 
+    // Mensajes pendientes de escribir (cola sin bloqueos)
+    private static String resumenActual; // Último resumen añadido, solo lo toca el hilo escritor
+    private static final ConcurrentLinkedQueue<Evento> pendientes = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger cantidadPendiente = new AtomicInteger();
+    private static final AtomicBoolean loteSolicitado = new AtomicBoolean();
+
+    // Mensajes que disparan un volcado inmediato (-Dreporte.lote)
+    private static final int TAMANO_LOTE = Integer.getInteger("reporte.lote", 50);
+    // Milisegundos entre volcados periódicos (-Dreporte.intervaloMs)
+    private static final long INTERVALO_MS = Long.getLong("reporte.intervaloMs", 2000L);
+
+    // Único hilo que toca ExtentReports después de la inicialización
+    private static final ScheduledExecutorService escritor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread hilo = new Thread(r, "reporte-escritor");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+
+    private record Evento(Prueba prueba, Status estado, String mensaje, String rutaCaptura) {
+    }
+
+    /**
+     * Caso de prueba del reporte. El ExtentTest se crea en el hilo escritor al aplicar su primer mensaje,
+     * así que crear la prueba no espera por él
+     */
+    public static final class Prueba {
+        private final String nombre;
+        private ExtentTest test; // Solo lo toca el hilo escritor
+
+        private Prueba(String nombre) {
+            this.nombre = nombre;
+        }
+
+        private ExtentTest test() {
+            if (test == null) {
+                test = extent.createTest(nombre);
+            }
+            return test;
+        }
+    }
+
     static {  // Bloque estático que se ejecuta cuando la clase es cargada por primera vez
         // Inicializa el reporter de tipo Spark (HTML moderno)
         ExtentSparkReporter spark = new ExtentSparkReporter("reports/ExtentReports/index.html");  // Crea un nuevo reporter Spark que guardará el informe en la ruta especificada
         extent = new ExtentReports();  // Inicializa la instancia de ExtentReports
         extent.attachReporter(spark);  // Asocia el reporter Spark con la instancia de ExtentReports
+
+        escritor.scheduleWithFixedDelay(Reporte::escribirLote, INTERVALO_MS, INTERVALO_MS, TimeUnit.MILLISECONDS);
+        // Último volcado al terminar la JVM para no perder el lote final
+        Runtime.getRuntime().addShutdownHook(new Thread(Reporte::cerrar));
     }
 
-    public static ExtentTest createTest(String name) {  // Método estático público para crear un nuevo caso de prueba
-        return extent.createTest(name);  // Crea y devuelve un nuevo caso de prueba con el nombre especificado
+    /**
+     * Crea un caso de prueba sin esperar al hilo escritor; aparece en el reporte con su primer mensaje
+     */
+    public static Prueba createTest(String name) {  // Método estático público para crear un nuevo caso de prueba
+        return new Prueba(name);
     }
 
-    public static void logInfo(ExtentTest test, String message, String screenshotBase64) {  // Método para registrar información con posibilidad de adjuntar capturas de pantalla
-        if (screenshotBase64 != null) {  // Verifica si se proporcionó una captura de pantalla en base64
-            test.info(message,  // Registra el mensaje como información en el caso de prueba
-                    com.aventstack.extentreports.MediaEntityBuilder  // Utiliza el constructor de entidades multimedia
-                            .createScreenCaptureFromBase64String(screenshotBase64)  // Crea una captura de pantalla a partir de la cadena base64
-                            .build()  // Construye la entidad multimedia
-            );
-        } else {  // Si no se proporcionó una captura de pantalla
-            test.info(message);  // Registra solo el mensaje como información
-        }
-        extent.flush();  // Escribe los cambios en el archivo de reporte
+    public static void logInfo(Prueba test, String message, String rutaCaptura) {  // Método para registrar información con posibilidad de adjuntar capturas de pantalla
+        encolar(new Evento(test, Status.INFO, message, rutaCaptura));
     }
 
     // Método para registrar pasos exitosos
-    public static void logPass(ExtentTest test, String message, String screenshotBase64) {  // Método para registrar pasos exitosos con posibilidad de adjuntar capturas
-        if (screenshotBase64 != null) {  // Verifica si se proporcionó una captura de pantalla
-            test.pass(message,  // Registra el mensaje como paso exitoso
-                    com.aventstack.extentreports.MediaEntityBuilder  // Utiliza el constructor de entidades multimedia
-                            .createScreenCaptureFromBase64String(screenshotBase64)  // Crea una captura a partir de la cadena base64
-                            .build()  // Construye la entidad multimedia
-            );
-        } else {  // Si no se proporcionó una captura de pantalla
-            test.pass(message);  // Registra solo el mensaje como paso exitoso
-        }
-        extent.flush();  // Escribe los cambios en el archivo de reporte
+    public static void logPass(Prueba test, String message, String rutaCaptura) {  // Método para registrar pasos exitosos con posibilidad de adjuntar capturas
+        encolar(new Evento(test, Status.PASS, message, rutaCaptura));
     }
 
     // Método para registrar pasos fallidos
-    public static void logFail(ExtentTest test, String message, String screenshotBase64) {  // Método para registrar pasos fallidos con posibilidad de adjuntar capturas
-        if (screenshotBase64 != null) {  // Verifica si se proporcionó una captura de pantalla
-            test.fail(message,  // Registra el mensaje como paso fallido
-                    com.aventstack.extentreports.MediaEntityBuilder  // Utiliza el constructor de entidades multimedia
-                            .createScreenCaptureFromBase64String(screenshotBase64)  // Crea una captura a partir de la cadena base64
-                            .build()  // Construye la entidad multimedia
-            );
-        } else {  // Si no se proporcionó una captura de pantalla
-            test.fail(message);  // Registra solo el mensaje como paso fallido
-        }
-        extent.flush();  // Escribe los cambios en el archivo de reporte
+    public static void logFail(Prueba test, String message, String rutaCaptura) {  // Método para registrar pasos fallidos con posibilidad de adjuntar capturas
+        encolar(new Evento(test, Status.FAIL, message, rutaCaptura));
     }
 
     // Método para registrar advertencias
-    public static void logWarning(ExtentTest test, String message, String screenshotBase64) {  // Método para registrar advertencias con posibilidad de adjuntar capturas
-        if (screenshotBase64 != null) {  // Verifica si se proporcionó una captura de pantalla
-            test.warning(message,  // Registra el mensaje como advertencia
-                    com.aventstack.extentreports.MediaEntityBuilder  // Utiliza el constructor de entidades multimedia
-                            .createScreenCaptureFromBase64String(screenshotBase64)  // Crea una captura a partir de la cadena base64
-                            .build()  // Construye la entidad multimedia
-            );
+    public static void logWarning(Prueba test, String message, String rutaCaptura) {  // Método para registrar advertencias con posibilidad de adjuntar capturas
+        encolar(new Evento(test, Status.WARNING, message, rutaCaptura));
+    }
+
+    /**
+     * Pone un bloque HTML en la sección de salida de la ejecución del reporte (por ejemplo el resumen de métricas).
+     * Los reintentos de Surefire vuelven a terminar la ejecución en la misma JVM: el resumen nuevo, que acumula
+     * ambas, sustituye al anterior en lugar de añadirse detrás
+     */
+    public static void agregarResumen(String html) {
+        if (escritor.isShutdown()) {
+            return;
+        }
+        escritor.execute(() -> {
+            if (resumenActual != null) {
+                extent.getReport().getLogs().remove(resumenActual);
+            }
+            resumenActual = html;
+            extent.addTestRunnerOutput(html);
+            extent.flush();
+        });
+    }
+
+    /**
+     * Pide al hilo escritor que aplique y vuelque ya todo lo pendiente, sin esperar a que termine.
+     * Si otro hilo lo pidió antes, este volcado no encuentra nada y no reescribe el HTML
+     */
+    public static Future<?> volcar() {
+        if (escritor.isShutdown()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return escritor.submit(Reporte::escribirLote);
+    }
+
+    /**
+     * Escribe de inmediato todo lo pendiente y espera a que termine
+     */
+    public static void flush() {
+        try {
+            volcar().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            System.out.println("Error al volcar el reporte: " + e.getCause().getMessage());
+        }
+    }
+
+    private static void encolar(Evento evento) {
+        pendientes.add(evento);
+        // Al alcanzar el tamaño de lote se pide un volcado sin esperar a que ocurra
+        if (cantidadPendiente.incrementAndGet() >= TAMANO_LOTE && !escritor.isShutdown()
+                && loteSolicitado.compareAndSet(false, true)) {
+            escritor.execute(Reporte::escribirLote);
+        }
+    }
+
+    /**
+     * Aplica los mensajes pendientes a ExtentReports y vuelca el HTML una sola vez por lote.
+     * Solo se ejecuta en el hilo escritor.
+     */
+    private static void escribirLote() {
+        loteSolicitado.set(false);
+        int aplicados = 0;
+        Evento evento;
+        while ((evento = pendientes.poll()) != null) {
+            cantidadPendiente.decrementAndGet();
+            try {
+                aplicar(evento);
+                aplicados++;
+            } catch (Exception e) {
+                System.out.println("No se pudo registrar el mensaje en el reporte: " + e.getMessage());
+            }
+        }
+        if (aplicados > 0) {
+            extent.flush();  // Escribe los cambios en el archivo de reporte
+        }
+    }
+
+    private static void aplicar(Evento evento) {
+        if (evento.rutaCaptura() != null) {  // Verifica si se proporcionó una captura de pantalla (ruta relativa al reporte)
+            evento.prueba().test().log(evento.estado(), evento.mensaje(),
+                    MediaEntityBuilder.createScreenCaptureFromPath(evento.rutaCaptura()).build());
         } else {  // Si no se proporcionó una captura de pantalla
-            test.warning(message);  // Registra solo el mensaje como advertencia
+            evento.prueba().test().log(evento.estado(), evento.mensaje());
         }
-        extent.flush();  // Escribe los cambios en el archivo de reporte
     }
 
-}
\ No newline at end of file
+    private static void cerrar() {
+        escritor.shutdown();
+        try {
+            escritor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // El escritor ya terminó, así que este hilo puede volcar lo que quede sin competir con él
+        escribirLote();
+    }
+}
@@ -0,0 +1,205 @@
+package utilidades;
+// Clase ReporteEnVivo: plugin de Cucumber que escribe la ejecución como un flujo NDJSON (una línea por evento,
+// añadida y volcada en cuanto ocurre) y guarda los adjuntos como archivos aparte. Se puede seguir una ejecución
+// larga mientras corre; el HTML paginado lo genera VisorReporte a partir del flujo, al terminar cada ejecución
+// de Cucumber salvo con -Dreporte.vivo.generar=false
+//
+// Uso en junit-platform.properties: cucumber.plugin=utilidades.ReporteEnVivo:reports/cucumber
+
+import io.cucumber.plugin.ConcurrentEventListener;
+import io.cucumber.plugin.event.EmbedEvent;
+import io.cucumber.plugin.event.EventPublisher;
+import io.cucumber.plugin.event.HookTestStep;
+import io.cucumber.plugin.event.PickleStepTestStep;
+import io.cucumber.plugin.event.Result;
+import io.cucumber.plugin.event.Status;
+import io.cucumber.plugin.event.TestCase;
+import io.cucumber.plugin.event.TestCaseFinished;
+import io.cucumber.plugin.event.TestCaseStarted;
+import io.cucumber.plugin.event.TestRunFinished;
+import io.cucumber.plugin.event.TestRunStarted;
+import io.cucumber.plugin.event.TestStepFinished;
+import io.cucumber.plugin.event.WriteEvent;
+import org.openqa.selenium.json.Json;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ReporteEnVivo implements ConcurrentEventListener {
+
+    // Nombre del flujo de eventos y del directorio de adjuntos dentro del directorio del reporte
+    static final String EVENTOS = "eventos.ndjson";
+    static final String ADJUNTOS = "adjuntos";
+
+    // Los reintentos de Surefire vuelven a lanzar Cucumber en la misma JVM con un plugin nuevo: solo la primera
+    // instancia empieza el flujo desde cero, las demás añaden sus eventos al mismo archivo
+    private static boolean flujoIniciado;
+    private static final AtomicLong adjuntos = new AtomicLong();
+    // Genera el HTML al terminar (-Dreporte.vivo.generar). Cada reintento de Surefire lo vuelve a generar desde
+    // todo el flujo; con false solo se escribe el flujo y el HTML se genera a demanda con VisorReporte
+    private static final boolean GENERAR = Boolean.parseBoolean(System.getProperty("reporte.vivo.generar", "true"));
+
+    private final Path directorio;
+    private Writer salida;
+
+    public ReporteEnVivo(File directorio) {
+        this.directorio = directorio.toPath();
+    }
+
+    @Override
+    public void setEventPublisher(EventPublisher publisher) {
+        publisher.registerHandlerFor(TestRunStarted.class, this::inicio);
+        publisher.registerHandlerFor(TestCaseStarted.class, this::escenarioIniciado);
+        publisher.registerHandlerFor(TestStepFinished.class, this::pasoTerminado);
+        publisher.registerHandlerFor(WriteEvent.class, this::texto);
+        publisher.registerHandlerFor(EmbedEvent.class, this::adjunto);
+        publisher.registerHandlerFor(TestCaseFinished.class, this::escenarioTerminado);
+        publisher.registerHandlerFor(TestRunFinished.class, this::fin);
+    }
+
+    private synchronized void inicio(TestRunStarted evento) {
+        try {
+            Files.createDirectories(directorio.resolve(ADJUNTOS));
+            synchronized (ReporteEnVivo.class) {
+                salida = Files.newBufferedWriter(directorio.resolve(EVENTOS), StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        flujoIniciado ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING);
+                flujoIniciado = true;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo crear el flujo del reporte en " + directorio, e);
+        }
+        escribir(evento("inicio", null, Map.of("instante", evento.getInstant().toString())));
+    }
+
+    private void escenarioIniciado(TestCaseStarted evento) {
+        TestCase caso = evento.getTestCase();
+        escribir(evento("escenario", caso, Map.of(
+                "nombre", caso.getName(),
+                "ubicacion", IdEscenario.de(caso.getUri().toString(), caso.getLocation().getLine()),
+                "etiquetas", caso.getTags(),
+                "instante", evento.getInstant().toString())));
+    }
+
+    private void pasoTerminado(TestStepFinished evento) {
+        Result resultado = evento.getResult();
+        String texto;
+        if (evento.getTestStep() instanceof PickleStepTestStep paso) {
+            texto = paso.getStep().getKeyword() + paso.getStep().getText();
+        } else if (evento.getTestStep() instanceof HookTestStep && resultado.getStatus() != Status.PASSED) {
+            // De los hooks solo interesan los que fallan o se omiten
+            texto = "Hook " + evento.getTestStep().getCodeLocation();
+        } else {
+            return;
+        }
+        Map<String, Object> datos = new LinkedHashMap<>();
+        datos.put("texto", texto);
+        datos.put("estado", resultado.getStatus().name());
+        datos.put("ms", resultado.getDuration().toMillis());
+        if (resultado.getError() != null) {
+            datos.put("error", String.valueOf(resultado.getError()));
+        }
+        escribir(evento("paso", evento.getTestCase(), datos));
+    }
+
+    private void texto(WriteEvent evento) {
+        escribir(evento("log", evento.getTestCase(), Map.of("texto", evento.getText())));
+    }
+
+    /**
+     * Los enlaces (text/uri-list, por ejemplo las capturas de AlmacenCapturas) se guardan tal cual;
+     * cualquier otro adjunto se escribe como archivo aparte y el flujo solo lleva su ruta
+     */
+    private void adjunto(EmbedEvent evento) {
+        String nombre = evento.getName() != null ? evento.getName() : "adjunto";
+        String ruta;
+        if ("text/uri-list".equals(evento.getMediaType())) {
+            ruta = new String(evento.getData(), StandardCharsets.UTF_8).trim();
+        } else {
+            String archivo = adjuntos.incrementAndGet() + extension(evento.getMediaType());
+            try {
+                Files.write(directorio.resolve(ADJUNTOS).resolve(archivo), evento.getData());
+            } catch (IOException e) {
+                System.out.println("No se pudo guardar el adjunto " + nombre + ": " + e.getMessage());
+                return;
+            }
+            ruta = ADJUNTOS + "/" + archivo;
+        }
+        escribir(evento("adjunto", evento.getTestCase(), Map.of(
+                "nombre", nombre, "tipo", evento.getMediaType(), "ruta", ruta)));
+    }
+
+    private void escenarioTerminado(TestCaseFinished evento) {
+        escribir(evento("resultado", evento.getTestCase(), Map.of(
+                "estado", evento.getResult().getStatus().name(),
+                "ms", evento.getResult().getDuration().toMillis())));
+    }
+
+    private void fin(TestRunFinished evento) {
+        escribir(evento("fin", null, Map.of("instante", evento.getInstant().toString())));
+        synchronized (this) {
+            try {
+                salida.close();
+            } catch (IOException e) {
+                System.out.println("No se pudo cerrar el flujo del reporte: " + e.getMessage());
+            }
+            salida = null;
+        }
+        if (GENERAR) {
+            VisorReporte.generar(directorio);
+        }
+    }
+
+    private static Map<String, Object> evento(String tipo, TestCase caso, Map<String, Object> datos) {
+        Map<String, Object> evento = new LinkedHashMap<>();
+        evento.put("tipo", tipo);
+        if (caso != null) {
+            evento.put("escenario", caso.getId().toString());
+        }
+        evento.putAll(datos);
+        return evento;
+    }
+
+    /**
+     * Añade una línea al flujo y la vuelca enseguida para que se pueda leer mientras la ejecución sigue
+     */
+    private synchronized void escribir(Map<String, Object> evento) {
+        if (salida == null) {
+            return;
+        }
+        StringWriter linea = new StringWriter();
+        new Json().newOutput(linea).setPrettyPrint(false).write(evento);
+        try {
+            salida.write(linea.toString());
+            salida.write('\n');
+            salida.flush();
+        } catch (IOException e) {
+            System.out.println("No se pudo escribir en el flujo del reporte: " + e.getMessage());
+        }
+    }
+
+    private static String extension(String tipo) {
+        switch (tipo) {
+            case "image/png":
+                return ".png";
+            case "image/jpeg":
+                return ".jpg";
+            case "application/json":
+                return ".json";
+            case "text/html":
+                return ".html";
+            default:
+                return tipo.startsWith("text/") ? ".txt" : ".bin";
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package utilidades;
+// Clase ServidorFixtures: servidor HTTP local que imita las páginas de Amazon que usa PaginaAmazon,
+// para ejecutar y medir la suite sin depender del sitio real (-Dfixtures=true)
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+
+public class ServidorFixtures {
+
+    // Latencia añadida a cada respuesta (-Dfixtures.latenciaMs)
+    private static final long LATENCIA_MS = Long.getLong("fixtures.latenciaMs", 0L);
+    // Puerto del servidor (-Dfixtures.puerto); 0 elige uno libre
+    private static final int PUERTO = Integer.getInteger("fixtures.puerto", 0);
+    // Directorio opcional con páginas grabadas que reemplazan a las sintéticas (-Dfixtures.dir)
+    private static final String DIRECTORIO_GRABADAS = System.getProperty("fixtures.dir");
+
+    private static final int RESULTADOS_POR_PAGINA = 16;
+    private static final int PAGINAS = 3;
+
+    private static HttpServer servidor;
+
+    /**
+     * Arranca el servidor (una sola vez por JVM) y apunta amazon.url hacia él
+     */
+    public static synchronized void iniciar() {
+        if (servidor != null) {
+            return;
+        }
+        try {
+            servidor = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), PUERTO), 0);
+        } catch (IOException e) {
+            throw new IllegalStateException("No se pudo iniciar el servidor de fixtures", e);
+        }
+        servidor.createContext("/", ServidorFixtures::atender);
+        // Un hilo por petición para que la latencia simulada no serialice a los escenarios en paralelo
+        servidor.setExecutor(Executors.newCachedThreadPool());
+        servidor.start();
+
+        String url = "http://localhost:" + servidor.getAddress().getPort() + "/";
+        System.setProperty("amazon.url", url);
+        System.out.println("Servidor de fixtures escuchando en " + url + " (latencia " + LATENCIA_MS + " ms)");
+    }
+
+    public static synchronized void detener() {
+        if (servidor != null) {
+            servidor.stop(0);
+            servidor = null;
+        }
+    }
+
+    private static void atender(HttpExchange intercambio) throws IOException {
+        try {
+            if (LATENCIA_MS > 0) {
+                Thread.sleep(LATENCIA_MS);
+            }
+            String ruta = intercambio.getRequestURI().getPath();
+            Map<String, String> parametros = parametros(intercambio.getRequestURI().getRawQuery());
+
+            String grabada = paginaGrabada(ruta);
+            if (grabada != null) {
+                responder(intercambio, 200, grabada);
+            } else if (ruta.equals("/")) {
+                responder(intercambio, 200, plantilla("home.html"));
+            } else if (ruta.equals("/s")) {
+                responder(intercambio, 200, paginaResultados(parametros.getOrDefault("k", ""),
+                        Integer.parseInt(parametros.getOrDefault("page", "1"))));
+            } else if (ruta.startsWith("/dp/")) {
+                String asin = ruta.substring("/dp/".length());
+                responder(intercambio, 200, plantilla("producto.html")
+                        .replace("{{asin}}", escapar(asin))
+                        .replace("{{titulo}}", "Producto de prueba " + escapar(asin)));
+            } else if (ruta.equals("/cart/add")) {
+                responder(intercambio, 200, plantilla("carrito.html")
+                        .replace("{{asin}}", escapar(parametros.getOrDefault("asin", "")))
+                        .replace("{{cantidad}}", escapar(parametros.getOrDefault("quantity", "1"))));
+            } else {
+                responder(intercambio, 404, "<html><body>No encontrado</body></html>");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            responder(intercambio, 500, "<html><body>" + escapar(String.valueOf(e.getMessage())) + "</body></html>");
+        } finally {
+            intercambio.close();
+        }
+    }
+
+    private static String paginaResultados(String consulta, int pagina) {
+        String plantillaResultado = plantilla("resultado.html");
+        StringBuilder resultados = new StringBuilder();
+        for (int i = 1; i <= RESULTADOS_POR_PAGINA; i++) {
+            String asin = String.format("B0FX%02d%04d", pagina, i);
+            resultados.append(plantillaResultado
+                    .replace("{{asin}}", asin)
+                    .replace("{{titulo}}", escapar(consulta) + " modelo " + pagina + "-" + i)
+                    .replace("{{precio}}", (10 * i + pagina) + ".99")
+                    .replace("{{calificacion}}", String.valueOf(3 + (i % 3) * 0.5)));
+        }
+
+        String k = escapar(URLEncoder.encode(consulta, StandardCharsets.UTF_8));
+        StringBuilder paginacion = new StringBuilder();
+        for (int n = 1; n <= PAGINAS; n++) {
+            paginacion.append("<a class=\"s-pagination-item\" href=\"/s?k=").append(k).append("&amp;page=").append(n)
+                    .append("\">").append(n).append("</a>\n");
+        }
+        if (pagina < PAGINAS) {
+            paginacion.append("<a class=\"s-pagination-item s-pagination-next\" href=\"/s?k=").append(k)
+                    .append("&amp;page=").append(pagina + 1).append("\">Siguiente</a>\n");
+        }
+
+        return plantilla("resultados.html")
+                .replace("{{consulta}}", escapar(consulta))
+                .replace("{{resultados}}", resultados)
+                .replace("{{paginacion}}", paginacion);
+    }
+
+    /**
+     * Página grabada para la ruta (por ejemplo "s.html" para /s), si se configuró fixtures.dir
+     */
+    private static String paginaGrabada(String ruta) {
+        if (DIRECTORIO_GRABADAS == null) {
+            return null;
+        }
+        String nombre = ruta.equals("/") ? "home" : ruta.substring(1).replace('/', '_');
+        Path archivo = Paths.get(DIRECTORIO_GRABADAS, nombre + ".html");
+        try {
+            return Files.exists(archivo) ? Files.readString(archivo) : null;
+        } catch (IOException e) {
+            throw new IllegalStateException("No se pudo leer la página grabada " + archivo, e);
+        }
+    }
+
+    private static String plantilla(String nombre) {
+        try (InputStream entrada = ServidorFixtures.class.getResourceAsStream("/fixtures/" + nombre)) {
+            if (entrada == null) {
+                throw new IllegalStateException("No existe la plantilla fixtures/" + nombre);
+            }
+            return new String(entrada.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException("No se pudo leer la plantilla fixtures/" + nombre, e);
+        }
+    }
+
+    private static void responder(HttpExchange intercambio, int estado, String html) throws IOException {
+        byte[] cuerpo = html.getBytes(StandardCharsets.UTF_8);
+        intercambio.getResponseHeaders().set("Content-Type", "text/html; charset=UTF-8");
+        intercambio.sendResponseHeaders(estado, cuerpo.length);
+        try (OutputStream salida = intercambio.getResponseBody()) {
+            salida.write(cuerpo);
+        }
+    }
+
+    private static Map<String, String> parametros(String consulta) {
+        Map<String, String> parametros = new HashMap<>();
+        if (consulta == null) {
+            return parametros;
+        }
+        for (String par : consulta.split("&")) {
+            int igual = par.indexOf('=');
+            if (igual > 0) {
+                parametros.put(URLDecoder.decode(par.substring(0, igual), StandardCharsets.UTF_8),
+                        URLDecoder.decode(par.substring(igual + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return parametros;
+    }
+
+    private static String escapar(String texto) {
+        return texto.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;")
+                .replace("\"", "&quot;").replace("'", "&#39;");
+    }
+}
@@ -0,0 +1,153 @@
+package utilidades;
+// Clase TiemposEscenarios: archivo local con la duración de cada escenario en ejecuciones anteriores
+// (reports/tiempos-escenarios.properties), que usa el reparto por shards para equilibrar por tiempo.
+// Durante una ejecución con shards el archivo es de solo lectura, para que todos los shards calculen el mismo
+// reparto: cada shard escribe sus tiempos en un archivo propio y main() los combina cuando terminan todos
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class TiemposEscenarios {
+
+    // Archivo de tiempos (-Dshard.tiempos); se conserva entre ejecuciones, no vive en target/
+    private static final Path ARCHIVO = Paths.get(System.getProperty("shard.tiempos",
+            "reports/tiempos-escenarios.properties"));
+    private static final int TOTAL = Integer.getInteger("shard.total", 1);
+    private static final int INDICE = Integer.getInteger("shard.indice", 1);
+
+    // Duraciones de esta ejecución en milisegundos, por escenario (ruta del .feature bajo features/ y línea)
+    private static final Map<String, Long> medidos = new ConcurrentHashMap<>();
+    // Tiempos leídos al empezar; el reparto usa siempre esta misma foto
+    private static Map<String, Long> foto;
+
+    public static void main(String[] args) {
+        combinarShards();
+    }
+
+    /**
+     * Duraciones guardadas en milisegundos, por escenario; vacío si aún no hay archivo.
+     * Se leen una sola vez por JVM
+     */
+    public static synchronized Map<String, Long> leer() {
+        if (foto == null) {
+            foto = Map.copyOf(leer(ARCHIVO));
+        }
+        return foto;
+    }
+
+    /**
+     * Anota la duración de un escenario en esta ejecución; si se repite, cuenta la última
+     */
+    public static void registrar(String id, long nanos) {
+        medidos.put(id, nanos / 1_000_000);
+    }
+
+    /**
+     * Sin shards combina los tiempos medidos con los guardados (media con el valor anterior, para suavizar
+     * ejecuciones atípicas). Con shards no toca el archivo común: escribe todos los tiempos del shard en su
+     * propio archivo, que se reescribe entero si los reintentos de Surefire vuelven a terminar la ejecución
+     */
+    public static synchronized void guardar() {
+        if (medidos.isEmpty()) {
+            return;
+        }
+        if (TOTAL > 1) {
+            escribir(archivoShard(INDICE, TOTAL), new TreeMap<>(medidos),
+                    "Duración en ms de los escenarios del shard " + INDICE + "/" + TOTAL);
+            return;
+        }
+        Map<String, Long> tiempos = leer(ARCHIVO);
+        medidos.forEach((id, ms) -> tiempos.merge(id, ms, TiemposEscenarios::media));
+        medidos.clear();
+        escribir(ARCHIVO, tiempos, "Duración en ms de cada escenario (ruta del .feature bajo features/ y línea), para repartir los shards");
+    }
+
+    /**
+     * Combina en el archivo común los archivos de los shards y los borra. Se ejecuta cuando terminaron todos:
+     * mvn -q exec:java -Dexec.mainClass=utilidades.TiemposEscenarios -Dexec.classpathScope=test
+     */
+    public static synchronized void combinarShards() {
+        Path directorio = ARCHIVO.toAbsolutePath().getParent();
+        if (!Files.isDirectory(directorio)) {
+            System.out.println("No hay tiempos de shards que combinar en " + directorio);
+            return;
+        }
+        Map<String, Long> tiempos = leer(ARCHIVO);
+        int combinados = 0;
+        try (DirectoryStream<Path> shards = Files.newDirectoryStream(directorio, prefijoShard() + "*.properties")) {
+            for (Path shard : shards) {
+                leer(shard).forEach((id, ms) -> tiempos.merge(id, ms, TiemposEscenarios::media));
+                Files.delete(shard);
+                combinados++;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudieron combinar los tiempos de los shards", e);
+        }
+        if (combinados > 0) {
+            escribir(ARCHIVO, tiempos, "Duración en ms de cada escenario (ruta del .feature bajo features/ y línea), para repartir los shards");
+        }
+        System.out.println("Tiempos de " + combinados + " shards combinados en " + ARCHIVO);
+    }
+
+    private static Map<String, Long> leer(Path archivo) {
+        Map<String, Long> tiempos = new TreeMap<>();
+        if (!Files.exists(archivo)) {
+            return tiempos;
+        }
+        Properties propiedades = new Properties();
+        try (Reader reader = Files.newBufferedReader(archivo)) {
+            propiedades.load(reader);
+        } catch (IOException e) {
+            System.out.println("No se pudo leer el archivo de tiempos " + archivo + ": " + e.getMessage());
+            return tiempos;
+        }
+        propiedades.forEach((id, ms) -> {
+            try {
+                tiempos.put((String) id, Long.parseLong((String) ms));
+            } catch (NumberFormatException e) {
+                // Línea corrupta: ese escenario cuenta como sin historial
+            }
+        });
+        return tiempos;
+    }
+
+    private static void escribir(Path archivo, Map<String, Long> tiempos, String comentario) {
+        Properties propiedades = new Properties();
+        tiempos.forEach((id, ms) -> propiedades.setProperty(id, String.valueOf(ms)));
+        try {
+            Files.createDirectories(archivo.toAbsolutePath().getParent());
+            try (Writer writer = Files.newBufferedWriter(archivo)) {
+                propiedades.store(writer, comentario);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo guardar el archivo de tiempos " + archivo, e);
+        }
+    }
+
+    /**
+     * Archivo del shard junto al común, por ejemplo tiempos-escenarios.shard-2-de-3.properties
+     */
+    private static Path archivoShard(int indice, int total) {
+        return ARCHIVO.toAbsolutePath().resolveSibling(prefijoShard() + indice + "-de-" + total + ".properties");
+    }
+
+    private static String prefijoShard() {
+        String nombre = ARCHIVO.getFileName().toString();
+        int punto = nombre.lastIndexOf('.');
+        return (punto > 0 ? nombre.substring(0, punto) : nombre) + ".shard-";
+    }
+
+    private static long media(long anterior, long nuevo) {
+        return (anterior + nuevo) / 2;
+    }
+}
@@ -0,0 +1,238 @@
+package utilidades;
+// Clase VisorReporte: genera el reporte HTML a partir del flujo NDJSON de ReporteEnVivo, en páginas de
+// -Dreporte.vivo.porPagina escenarios más un índice con los totales. Lee el flujo línea a línea y solo guarda
+// en memoria los escenarios en curso y la página que está escribiendo, así que no crece con la suite.
+// Se ejecuta solo al terminar la ejecución (salvo con -Dreporte.vivo.generar=false); para ver una ejecución que
+// sigue en marcha, o para generarlo cuando está desactivado:
+//   mvn -q exec:java -Dexec.mainClass=utilidades.VisorReporte -Dexec.classpathScope=test
+
+import org.openqa.selenium.json.Json;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class VisorReporte {
+
+    // Escenarios por página del reporte
+    private static final int POR_PAGINA = Integer.getInteger("reporte.vivo.porPagina", 50);
+
+    /**
+     * Escenario leído del flujo: la cabecera y el HTML de sus pasos, logs y adjuntos, hasta que llega su resultado
+     */
+    private static class Escenario {
+        String nombre = "";
+        String ubicacion = "";
+        String estado = "EN CURSO";
+        long ms;
+        final StringBuilder cuerpo = new StringBuilder();
+    }
+
+    public static void main(String[] args) {
+        generar(Paths.get(args.length > 0 ? args[0] : "reports/cucumber"));
+    }
+
+    /**
+     * Reescribe index.html y las páginas del directorio del reporte con el contenido actual del flujo
+     */
+    public static synchronized void generar(Path directorio) {
+        Path eventos = directorio.resolve(ReporteEnVivo.EVENTOS);
+        if (!Files.exists(eventos)) {
+            System.out.println("No hay flujo de eventos en " + eventos);
+            return;
+        }
+        Json json = new Json();
+        Map<String, Escenario> enCurso = new LinkedHashMap<>();
+        List<Escenario> pagina = new ArrayList<>();
+        Map<String, Integer> totales = new TreeMap<>();
+        List<Integer> fallosPorPagina = new ArrayList<>();
+        String inicio = "";
+        String fin = null;
+
+        try (BufferedReader lector = Files.newBufferedReader(eventos, StandardCharsets.UTF_8)) {
+            // Las páginas de una generación anterior pueden ser más que las de esta
+            try (DirectoryStream<Path> anteriores = Files.newDirectoryStream(directorio, "pagina-*.html")) {
+                for (Path anterior : anteriores) {
+                    Files.delete(anterior);
+                }
+            }
+            String linea;
+            while ((linea = lector.readLine()) != null) {
+                if (linea.isBlank()) {
+                    continue;
+                }
+                Map<String, Object> evento;
+                try {
+                    evento = json.toType(linea, Json.MAP_TYPE);
+                } catch (RuntimeException e) {
+                    // Última línea a medio escribir si la ejecución sigue en marcha
+                    continue;
+                }
+                String tipo = String.valueOf(evento.get("tipo"));
+                String id = String.valueOf(evento.get("escenario"));
+                switch (tipo) {
+                    case "inicio":
+                        if (inicio.isEmpty()) {
+                            inicio = texto(evento, "instante");
+                        }
+                        break;
+                    case "fin":
+                        fin = texto(evento, "instante");
+                        break;
+                    case "escenario":
+                        Escenario escenario = new Escenario();
+                        escenario.nombre = texto(evento, "nombre");
+                        escenario.ubicacion = texto(evento, "ubicacion");
+                        enCurso.put(id, escenario);
+                        break;
+                    case "resultado":
+                        Escenario terminado = enCurso.remove(id);
+                        if (terminado == null) {
+                            break;
+                        }
+                        terminado.estado = texto(evento, "estado");
+                        terminado.ms = ((Number) evento.getOrDefault("ms", 0L)).longValue();
+                        totales.merge(terminado.estado, 1, Integer::sum);
+                        pagina.add(terminado);
+                        if (pagina.size() == POR_PAGINA) {
+                            fallosPorPagina.add(escribirPagina(directorio, fallosPorPagina.size() + 1, pagina));
+                            pagina.clear();
+                        }
+                        break;
+                    default:
+                        Escenario actual = enCurso.get(id);
+                        if (actual != null) {
+                            detalle(actual.cuerpo, tipo, evento);
+                        }
+                }
+            }
+            // Los escenarios sin resultado van al final, marcados como en curso
+            for (Escenario escenario : enCurso.values()) {
+                totales.merge(escenario.estado, 1, Integer::sum);
+                pagina.add(escenario);
+                if (pagina.size() == POR_PAGINA) {
+                    fallosPorPagina.add(escribirPagina(directorio, fallosPorPagina.size() + 1, pagina));
+                    pagina.clear();
+                }
+            }
+            if (!pagina.isEmpty() || fallosPorPagina.isEmpty()) {
+                fallosPorPagina.add(escribirPagina(directorio, fallosPorPagina.size() + 1, pagina));
+            }
+            escribirIndice(directorio, inicio, fin, totales, fallosPorPagina);
+        } catch (IOException e) {
+            System.out.println("No se pudo generar el reporte desde " + eventos + ": " + e.getMessage());
+            return;
+        }
+        System.out.println("Reporte de Cucumber en " + directorio.resolve("index.html") + " ("
+                + fallosPorPagina.size() + " páginas)");
+    }
+
+    private static void detalle(StringBuilder cuerpo, String tipo, Map<String, Object> evento) {
+        switch (tipo) {
+            case "paso":
+                String estado = texto(evento, "estado");
+                cuerpo.append("<li class=\"").append(estado.toLowerCase()).append("\">")
+                        .append(escapar(texto(evento, "texto")))
+                        .append(" <small>").append(estado).append(", ").append(evento.get("ms")).append(" ms</small>");
+                if (evento.containsKey("error")) {
+                    cuerpo.append("<details><summary>Error</summary><pre>").append(escapar(texto(evento, "error")))
+                            .append("</pre></details>");
+                }
+                cuerpo.append("</li>\n");
+                break;
+            case "log":
+                cuerpo.append("<li class=\"log\"><pre>").append(escapar(texto(evento, "texto"))).append("</pre></li>\n");
+                break;
+            case "adjunto":
+                String ruta = escapar(texto(evento, "ruta"));
+                String nombre = escapar(texto(evento, "nombre"));
+                boolean imagen = texto(evento, "tipo").startsWith("image/") || ruta.matches("(?i).*\\.(png|jpe?g|gif|webp)");
+                cuerpo.append("<li class=\"adjunto\"><details><summary>").append(nombre).append("</summary>");
+                if (imagen) {
+                    // Las imágenes se cargan al abrir el bloque, no al abrir la página
+                    cuerpo.append("<img loading=\"lazy\" src=\"").append(ruta).append("\" alt=\"").append(nombre).append("\">");
+                } else {
+                    cuerpo.append("<a href=\"").append(ruta).append("\">").append(ruta).append("</a>");
+                }
+                cuerpo.append("</details></li>\n");
+                break;
+            default:
+        }
+    }
+
+    /**
+     * Escribe pagina-NNN.html y devuelve cuántos de sus escenarios fallaron
+     */
+    private static int escribirPagina(Path directorio, int numero, List<Escenario> escenarios) throws IOException {
+        int fallos = 0;
+        try (Writer salida = Files.newBufferedWriter(directorio.resolve(pagina(numero)), StandardCharsets.UTF_8)) {
+            salida.write(cabecera("Escenarios - página " + numero));
+            salida.write("<p><a href=\"index.html\">Índice</a></p>\n");
+            for (Escenario escenario : escenarios) {
+                boolean fallo = "FAILED".equals(escenario.estado);
+                if (fallo) {
+                    fallos++;
+                }
+                salida.write("<details class=\"" + escenario.estado.toLowerCase().replace(' ', '-') + "\""
+                        + (fallo ? " open" : "") + "><summary>" + escapar(escenario.nombre) + " <small>"
+                        + escapar(escenario.ubicacion) + " - " + escenario.estado + ", " + escenario.ms
+                        + " ms</small></summary>\n<ul>\n");
+                salida.write(escenario.cuerpo.toString());
+                salida.write("</ul></details>\n");
+            }
+            salida.write("</body></html>\n");
+        }
+        return fallos;
+    }
+
+    private static void escribirIndice(Path directorio, String inicio, String fin, Map<String, Integer> totales,
+                                       List<Integer> fallosPorPagina) throws IOException {
+        try (Writer salida = Files.newBufferedWriter(directorio.resolve("index.html"), StandardCharsets.UTF_8)) {
+            salida.write(cabecera("Reporte de Cucumber"));
+            salida.write("<p>Inicio: " + escapar(inicio) + "<br>"
+                    + (fin != null ? "Fin: " + escapar(fin) : "Ejecución en curso") + "</p>\n<ul>\n");
+            for (Map.Entry<String, Integer> total : totales.entrySet()) {
+                salida.write("<li class=\"" + total.getKey().toLowerCase().replace(' ', '-') + "\">"
+                        + total.getKey() + ": " + total.getValue() + "</li>\n");
+            }
+            salida.write("</ul>\n<ol>\n");
+            for (int i = 0; i < fallosPorPagina.size(); i++) {
+                int fallos = fallosPorPagina.get(i);
+                salida.write("<li><a href=\"" + pagina(i + 1) + "\">Página " + (i + 1) + "</a>"
+                        + (fallos > 0 ? " <span class=\"failed\">" + fallos + " fallidos</span>" : "") + "</li>\n");
+            }
+            salida.write("</ol>\n</body></html>\n");
+        }
+    }
+
+    private static String cabecera(String titulo) {
+        return "<!DOCTYPE html>\n<html lang=\"es\"><head><meta charset=\"utf-8\"><title>" + titulo + "</title>\n"
+                + "<style>body{font-family:sans-serif;margin:2em}summary{cursor:pointer}small{color:#666}"
+                + ".passed{color:#2e7d32}.failed{color:#c62828}.skipped,.en-curso{color:#f9a825}"
+                + "img{max-width:100%}pre{white-space:pre-wrap;color:#333}</style></head><body>\n"
+                + "<h1>" + titulo + "</h1>\n";
+    }
+
+    private static String pagina(int numero) {
+        return String.format("pagina-%03d.html", numero);
+    }
+
+    private static String texto(Map<String, Object> evento, String clave) {
+        Object valor = evento.get(clave);
+        return valor == null ? "" : String.valueOf(valor);
+    }
+
+    private static String escapar(String texto) {
+        return texto.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+}